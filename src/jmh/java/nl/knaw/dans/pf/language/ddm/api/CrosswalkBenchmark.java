@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.knaw.dans.pf.language.emd.EasyMetadata;
+import nl.knaw.dans.pf.language.xml.crosswalk.Crosswalker.Engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link Ddm2EmdCrosswalk#createFromValidated(String)} of all documents of a test resource directory, or of the spatial ones only, by each
+ * {@link Engine}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CrosswalkBenchmark {
+    @Param({ Fixtures.CROSSWALK_DIR, Fixtures.INPUT_DIR })
+    public String dir;
+
+    @Param({ "SAX", "STAX" })
+    public Engine engine;
+
+    private List<String> documents;
+    private List<String> spatialDocuments;
+    private Ddm2EmdCrosswalk crosswalk;
+
+    @Setup
+    public void setup() throws Exception {
+        documents = Fixtures.loadStrings(dir, "");
+        spatialDocuments = Fixtures.loadStrings(Fixtures.CROSSWALK_DIR, "spatial");
+        crosswalk = new Ddm2EmdCrosswalk(null);
+        crosswalk.setEmdCheck(EmdCheck.OFF);
+        crosswalk.setEngine(engine);
+    }
+
+    @Benchmark
+    public void createFromValidated(final Blackhole blackhole) throws Exception {
+        for (final String xml : documents) {
+            crosswalk.getXmlErrorHandler().reset();
+            final EasyMetadata emd = crosswalk.createFromValidated(xml);
+            blackhole.consume(emd);
+        }
+    }
+
+    @Benchmark
+    public void spatial(final Blackhole blackhole) throws Exception {
+        for (final String xml : spatialDocuments) {
+            crosswalk.getXmlErrorHandler().reset();
+            blackhole.consume(crosswalk.createFromValidated(xml));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/** {@link Ddm2EmdHandlerMap#getHandler} and {@link Ddm2EmdHandlerMap#reportMissingHandler} for every element of the crosswalk test documents. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DispatchBenchmark {
+    private final List<String> uris = new ArrayList<String>();
+    private final List<String> localNames = new ArrayList<String>();
+    private final List<Attributes> attributes = new ArrayList<Attributes>();
+    private Ddm2EmdHandlerMap handlerMap;
+
+    @Setup
+    public void setup() throws Exception {
+        final SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        for (final byte[] xml : Fixtures.load(Fixtures.CROSSWALK_DIR, "")) {
+            factory.newSAXParser().parse(new ByteArrayInputStream(xml), new DefaultHandler() {
+                @Override
+                public void startElement(final String uri, final String localName, final String qName, final Attributes atts) {
+                    uris.add(uri);
+                    localNames.add(localName);
+                    attributes.add(new AttributesImpl(atts));
+                }
+            });
+        }
+        handlerMap = Ddm2EmdHandlerMap.newInstance();
+        handlerMap.getKeys();
+    }
+
+    @Benchmark
+    public void getHandler(final Blackhole blackhole) throws Exception {
+        for (int i = 0; i < uris.size(); i++) {
+            blackhole.consume(handlerMap.getHandler(uris.get(i), localNames.get(i), attributes.get(i)));
+            blackhole.consume(handlerMap.reportMissingHandler(uris.get(i), localNames.get(i), attributes.get(i)));
+        }
+    }
+}
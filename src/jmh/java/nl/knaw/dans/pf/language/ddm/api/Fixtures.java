@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Loads the test documents once, so the benchmarks don't measure disk access. Run from the project directory. */
+final class Fixtures {
+    static final String CROSSWALK_DIR = "src/test/resources/ddm2emdCrosswalk";
+    static final String INPUT_DIR = "src/test/resources/input";
+
+    private Fixtures() {}
+
+    /**
+     * @param dir
+     *        one of the test resource directories
+     * @param prefix
+     *        of the file names to load, empty for all
+     * @return the XML documents in alphabetical order of the file names
+     */
+    static List<byte[]> load(final String dir, final String prefix) throws IOException {
+        final File[] files = new File(dir).listFiles(
+                (d, name) -> name.startsWith(prefix) && (name.endsWith(".input.xml") || (name.endsWith(".xml") && !name.endsWith(".output.xml"))));
+        if (files == null || files.length == 0)
+            throw new IOException("no documents in " + new File(dir).getAbsolutePath() + " starting with [" + prefix + "]");
+        Arrays.sort(files);
+        final List<byte[]> documents = new ArrayList<byte[]>(files.length);
+        for (final File file : files)
+            documents.add(Files.readAllBytes(file.toPath()));
+        return documents;
+    }
+
+    /** @see #load(String, String) */
+    static List<String> loadStrings(final String dir, final String prefix) throws IOException {
+        final List<String> documents = new ArrayList<String>();
+        for (final byte[] bytes : load(dir, prefix))
+            documents.add(new String(bytes, "UTF-8"));
+        return documents;
+    }
+}
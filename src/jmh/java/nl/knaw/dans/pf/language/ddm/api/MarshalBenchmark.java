@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.knaw.dans.pf.language.emd.EasyMetadata;
+import nl.knaw.dans.pf.language.emd.binding.EmdMarshaller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Marshalling of the Easy Meta Data of the crosswalk test documents, as done by the {@link EmdCheck}s. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MarshalBenchmark {
+    private final List<EasyMetadata> emds = new ArrayList<EasyMetadata>();
+    private long written;
+    private final OutputStream countingStream = new OutputStream() {
+        @Override
+        public void write(final int b) {
+            written++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            written += len;
+        }
+    };
+
+    @Setup
+    public void setup() throws Exception {
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        crosswalk.setEmdCheck(EmdCheck.OFF);
+        for (final String xml : Fixtures.loadStrings(Fixtures.CROSSWALK_DIR, "")) {
+            final EasyMetadata emd = crosswalk.createFromValidated(xml);
+            if (emd != null)
+                emds.add(emd);
+        }
+    }
+
+    @Benchmark
+    public void string(final Blackhole blackhole) throws Exception {
+        for (final EasyMetadata emd : emds)
+            blackhole.consume(new EmdMarshaller(emd).getXmlString());
+    }
+
+    @Benchmark
+    public long streaming() throws Exception {
+        for (final EasyMetadata emd : emds)
+            new EmdMarshaller(emd).write(countingStream);
+        return written;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler;
+import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler.Reporter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Validation of the crosswalk test documents against the DDM schemas, without the crosswalk. The schemas are compiled during setup, schemas that are
+ * not bundled (GML) are loaded from the override directory or the network.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ValidationBenchmark {
+    private List<byte[]> documents;
+    private DDMValidator validator;
+    private Ddm2EmdCrosswalk crosswalk;
+    private Ddm2EmdCrosswalk singlePassCrosswalk;
+
+    @Setup
+    public void setup() throws Exception {
+        documents = Fixtures.load(Fixtures.CROSSWALK_DIR, "");
+        validator = new DDMValidator();
+        validator.getCompiledSchema();
+        crosswalk = new Ddm2EmdCrosswalk(validator);
+        crosswalk.setEmdCheck(EmdCheck.OFF);
+        singlePassCrosswalk = new Ddm2EmdCrosswalk(validator);
+        singlePassCrosswalk.setEmdCheck(EmdCheck.OFF);
+        singlePassCrosswalk.setSinglePass(true);
+    }
+
+    @Benchmark
+    public void validate(final Blackhole blackhole) throws Exception {
+        for (final byte[] xml : documents) {
+            final XMLErrorHandler handler = new XMLErrorHandler(Reporter.off);
+            validator.validate(handler, new ByteArrayInputStream(xml));
+            blackhole.consume(handler);
+        }
+    }
+
+    @Benchmark
+    public void validateAndCrosswalk(final Blackhole blackhole) throws Exception {
+        walk(crosswalk, blackhole);
+    }
+
+    @Benchmark
+    public void validateAndCrosswalkSinglePass(final Blackhole blackhole) throws Exception {
+        walk(singlePassCrosswalk, blackhole);
+    }
+
+    private void walk(final Ddm2EmdCrosswalk crosswalk, final Blackhole blackhole) throws Exception {
+        for (final byte[] xml : documents) {
+            crosswalk.getXmlErrorHandler().reset();
+            blackhole.consume(crosswalk.createFrom(new String(xml, "UTF-8")));
+        }
+    }
+}
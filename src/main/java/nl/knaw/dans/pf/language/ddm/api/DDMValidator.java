@@ -16,12 +16,12 @@
 package nl.knaw.dans.pf.language.ddm.api;
 
 import static nl.knaw.dans.pf.language.ddm.handlermaps.NameSpace.*;
-import nl.knaw.dans.pf.language.xml.validation.AbstractValidator2;
+import nl.knaw.dans.pf.language.xml.schema.CachedSchemaValidator;
 
 /**
- * Utility class for validating Dans Dataset Metadata.
+ * Utility class for validating Dans Dataset Metadata. All instances share the compiled schemas.
  */
-public class DDMValidator extends AbstractValidator2 {
+public class DDMValidator extends CachedSchemaValidator {
     public DDMValidator() {
         // default schemas for DDM (online)
         super(DDM.xsd, DCX_GML.xsd, NARCIS_TYPE.xsd, IDENTIFIER_TYPE.xsd, ABR.xsd);
@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import nl.knaw.dans.pf.language.ddm.handlermaps.NameSpace;
+import nl.knaw.dans.pf.language.ddm.metrics.CacheMetrics;
+import nl.knaw.dans.pf.language.emd.EasyMetadata;
+import nl.knaw.dans.pf.language.emd.EasyMetadataImpl;
+import nl.knaw.dans.pf.language.emd.binding.EmdMarshaller;
+import nl.knaw.dans.pf.language.emd.binding.EmdUnmarshaller;
+import nl.knaw.dans.pf.language.xml.exc.XMLDeserializationException;
+import nl.knaw.dans.pf.language.xml.exc.XMLSerializationException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+/**
+ * Remembers the Easy Meta Data created from DDM documents, by a digest of the bytes of the document, the settings of the crosswalk and the version of
+ * the crosswalk. The version includes the registered handler keys and the content of the vocabularies (see {@link Ddm2EmdHandlerMap#getVersion()}), so
+ * results of an older crosswalk kept in a directory are not returned. The most recently used results are kept in memory, optionally all results are kept
+ * in a directory as well. A hit returns a new copy of the Easy Meta Data, without validation or parse of the document, so the notifications of the
+ * original crosswalk are not repeated. Only results without errors are remembered. Attach an instance with
+ * {@link Ddm2EmdCrosswalk#setCache(Ddm2EmdCache)}. Crosswalks sharing an instance should use the same validator.
+ * <p>
+ * The directory has a subdirectory per version, the first use of a directory deletes the results of other versions. Without an implementation version
+ * in the manifest, for example in tests or from an IDE, changes of the handlers are not part of the version, so clear the directory after them.
+ */
+public class Ddm2EmdCache {
+    private static final Logger logger = LoggerFactory.getLogger(Ddm2EmdCache.class);
+    private static final String SUFFIX = ".emd";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** The release of the crosswalk and the schema of the documents, see {@link #version()} for the rest. */
+    private static final String IMPLEMENTATION_VERSION = Ddm2EmdCache.class.getPackage().getImplementationVersion();
+    private static final String RELEASE = versionOf(IMPLEMENTATION_VERSION) + " " + NameSpace.DDM.xsd;
+
+    private final int maxEntries;
+    private final File root;
+    /** the subdirectory of the current version, resolved on first use */
+    private volatile File dir;
+    private final Map<String, byte[]> memory;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a cache in memory only.
+     * 
+     * @param maxEntries
+     *        the number of results kept in memory
+     */
+    public Ddm2EmdCache(final int maxEntries) {
+        this(maxEntries, null);
+    }
+
+    /**
+     * Creates a cache in memory and in a directory.
+     * 
+     * @param maxEntries
+     *        the number of results kept in memory
+     * @param dir
+     *        keeps all results of the current version, created if it does not exist, null to keep results in memory only
+     * @throws IllegalArgumentException
+     *         if maxEntries is not positive or the directory can not be created
+     */
+    public Ddm2EmdCache(final int maxEntries, final File dir) throws IllegalArgumentException {
+        if (maxEntries < 1)
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs())
+            throw new IllegalArgumentException("can not create " + dir);
+        if (dir != null && IMPLEMENTATION_VERSION == null)
+            logger.warn("caching results in {} without an implementation version, clear it after changes of the crosswalk", dir);
+        this.maxEntries = maxEntries;
+        this.root = dir;
+        memory = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, byte[]> eldest) {
+                return size() > Ddm2EmdCache.this.maxEntries;
+            }
+        };
+    }
+
+    /** @return the release of the crosswalk, the schema of the documents, the registered handler keys and the vocabularies */
+    static String version() throws SAXException {
+        return RELEASE + " " + Ddm2EmdHandlerMap.getVersion();
+    }
+
+    /**
+     * @param xml
+     *        the bytes of a document
+     * @param settings
+     *        what else determines the result, such as the validation and the checks of the crosswalk
+     * @return the key of the result of the document
+     * @throws SAXException
+     *         if the vocabularies could not be loaded
+     */
+    String key(final byte[] xml, final String settings) throws SAXException {
+        return key(xml, version(), settings);
+    }
+
+    /** @return the digest of the document, a dash and the digest of the version and settings */
+    static String key(final byte[] xml, final String version, final String settings) {
+        final MessageDigest digest = newDigest();
+        digest.update(version.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(settings.getBytes(StandardCharsets.UTF_8));
+        return documentPrefix(xml) + hex(digest.digest());
+    }
+
+    /** @return the start of the keys of all results of the document */
+    private static String documentPrefix(final byte[] xml) {
+        return hex(newDigest().digest(xml)) + "-";
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (final NoSuchAlgorithmException e) {
+            // required for every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** @return the subdirectory of the current version, null if there is none */
+    private File getDir() {
+        if (root == null)
+            return null;
+        File result = dir;
+        if (result == null) {
+            synchronized (this) {
+                result = dir;
+                if (result == null) {
+                    try {
+                        result = new File(root, hex(newDigest().digest(version().getBytes(StandardCharsets.UTF_8))));
+                    }
+                    catch (final SAXException e) {
+                        logger.warn("not caching results in {}: {}", root, e.getMessage());
+                        return null;
+                    }
+                    if (!result.isDirectory() && !result.mkdirs()) {
+                        logger.warn("not caching results in {}: can not create {}", root, result);
+                        return null;
+                    }
+                    deleteVersionsExcept(result);
+                    dir = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /** the results of other versions can never be returned again */
+    private void deleteVersionsExcept(final File current) {
+        final File[] versions = root.listFiles(file -> file.isDirectory() && !file.equals(current) && file.getName().matches("[0-9a-f]{64}"));
+        if (versions != null)
+            for (final File version : versions)
+                deleteResults(version);
+    }
+
+    /** deletes a version directory, unless something else is in it */
+    private static void deleteResults(final File version) {
+        deleteFiles(version);
+        version.delete();
+    }
+
+    private static void deleteFiles(final File dir) {
+        final File[] files = dir.listFiles((d, name) -> name.endsWith(SUFFIX) || name.endsWith(TEMP_SUFFIX));
+        if (files != null)
+            for (final File file : files)
+                if (!file.delete() && file.exists())
+                    logger.warn("could not delete {}", file);
+    }
+
+    private static String hex(final byte[] hash) {
+        final char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[i * 2] = HEX[(hash[i] >> 4) & 0xf];
+            hex[i * 2 + 1] = HEX[hash[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * @return a new copy of the remembered result, null if there is none
+     */
+    EasyMetadata get(final String key) {
+        final byte[] serialized = getSerialized(key);
+        if (serialized == null)
+            return null;
+        try {
+            return new EmdUnmarshaller<EasyMetadata>(EasyMetadataImpl.class).unmarshal(new String(serialized, StandardCharsets.UTF_8));
+        }
+        catch (final XMLDeserializationException e) {
+            logger.warn("discarding unreadable cached result {}: {}", key, e.getMessage());
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * @return the remembered result as Easy Meta Data XML in UTF-8, null if there is none
+     */
+    byte[] getSerialized(final String key) {
+        byte[] serialized;
+        synchronized (memory) {
+            serialized = memory.get(key);
+        }
+        final File dir = getDir();
+        if (serialized == null && dir != null) {
+            serialized = read(dir, key);
+            if (serialized != null) {
+                diskHits.increment();
+                synchronized (memory) {
+                    memory.put(key, serialized);
+                }
+            }
+        }
+        if (serialized == null)
+            misses.increment();
+        else
+            hits.increment();
+        return serialized == null ? null : serialized.clone();
+    }
+
+    /**
+     * Remembers a result.
+     */
+    void put(final String key, final EasyMetadata emd) {
+        final byte[] serialized;
+        try {
+            serialized = new EmdMarshaller(emd).getXmlString().getBytes(StandardCharsets.UTF_8);
+        }
+        catch (final XMLSerializationException e) {
+            logger.warn("not caching {}: {}", key, e.getMessage());
+            return;
+        }
+        synchronized (memory) {
+            memory.put(key, serialized);
+        }
+        final File dir = getDir();
+        if (dir != null)
+            write(dir, key, serialized);
+    }
+
+    /**
+     * Forgets the results of a document, whatever the settings of the crosswalks that created them.
+     * 
+     * @param xml
+     *        the bytes of the document
+     */
+    public void invalidate(final byte[] xml) {
+        final String prefix = documentPrefix(xml);
+        synchronized (memory) {
+            memory.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+        final File dir = getDir();
+        if (dir == null)
+            return;
+        final File[] files = dir.listFiles((d, name) -> name.startsWith(prefix) && name.endsWith(SUFFIX));
+        if (files != null)
+            for (final File file : files)
+                file.delete();
+    }
+
+    /** Forgets all results, for example to free the directory. The counters are kept. */
+    public void invalidateAll() {
+        synchronized (memory) {
+            memory.clear();
+        }
+        final File dir = getDir();
+        if (dir == null)
+            return;
+        deleteFiles(dir);
+    }
+
+    /** @return the number of results in memory */
+    public int size() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    /** @return the number of requests served from memory or disk */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** @return the number of requests served from disk */
+    public long getDiskHits() {
+        return diskHits.sum();
+    }
+
+    /** @return the number of requests that required a crosswalk */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** @return the counters to publish, see {@link Ddm2EmdCrosswalk#setCache(Ddm2EmdCache)} */
+    public CacheMetrics getMetrics() {
+        return new CacheMetrics(this::getHits, this::getMisses);
+    }
+
+    private void remove(final String key) {
+        synchronized (memory) {
+            memory.remove(key);
+        }
+        final File dir = getDir();
+        if (dir != null)
+            new File(dir, key + SUFFIX).delete();
+    }
+
+    private static byte[] read(final File dir, final String key) {
+        try {
+            return Files.readAllBytes(new File(dir, key + SUFFIX).toPath());
+        }
+        catch (final NoSuchFileException e) {
+            return null;
+        }
+        catch (final IOException e) {
+            logger.warn("could not read cached result {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void write(final File dir, final String key, final byte[] serialized) {
+        File temp = null;
+        try {
+            temp = File.createTempFile(key, TEMP_SUFFIX, dir);
+            Files.write(temp.toPath(), serialized);
+            Files.move(temp.toPath(), new File(dir, key + SUFFIX).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (final IOException e) {
+            logger.warn("could not write cached result {}: {}", key, e.getMessage());
+            if (temp != null)
+                temp.delete();
+        }
+    }
+
+    private static String versionOf(final String implementationVersion) {
+        return implementationVersion == null ? "development" : implementationVersion;
+    }
+}
@@ -16,12 +16,39 @@
 package nl.knaw.dans.pf.language.ddm.api;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
+import nl.knaw.dans.pf.language.ddm.metrics.Ddm2EmdMetrics;
 import nl.knaw.dans.pf.language.emd.EasyMetadata;
 import nl.knaw.dans.pf.language.emd.binding.EasyMetadataFactory;
 import nl.knaw.dans.pf.language.emd.binding.EmdMarshaller;
 import nl.knaw.dans.pf.language.emd.types.ApplicationSpecific.MetadataFormat;
 import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkException;
+import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkHandlerMap;
 import nl.knaw.dans.pf.language.xml.crosswalk.Crosswalker;
 import nl.knaw.dans.pf.language.xml.exc.XMLSerializationException;
 import nl.knaw.dans.pf.language.xml.validation.AbstractValidator2;
@@ -32,10 +59,30 @@ import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
+/**
+ * Creates Easy Meta Data from Dans Dataset Metadata. An instance may be shared by multiple threads: each walk gets its own handlers, each thread its own
+ * reader and {@link XMLErrorHandler}.
+ */
 public class Ddm2EmdCrosswalk extends Crosswalker<EasyMetadata> {
     private static final Logger logger = LoggerFactory.getLogger(Ddm2EmdCrosswalk.class);
 
-    private AbstractValidator2 ddmValidator;
+    /** The number of documents of a streamed batch that may be submitted but not yet consumed. */
+    public static final int MAX_PENDING = 4 * Runtime.getRuntime().availableProcessors();
+
+    /** Discards whatever is written to it. */
+    private static final OutputStream NULL_OUTPUT_STREAM = new OutputStream() {
+        @Override
+        public void write(final int b) {}
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {}
+    };
+
+    private final AbstractValidator2 ddmValidator;
+    private volatile EmdCheck emdCheck = EmdCheck.STREAMING;
+    private volatile Ddm2EmdMetrics metrics;
+    private volatile Ddm2EmdCache cache;
+    private volatile Set<EmdSection> projection;
 
     /** Creates an instance. */
     public Ddm2EmdCrosswalk() {
@@ -54,6 +101,95 @@ public class Ddm2EmdCrosswalk extends Crosswalker<EasyMetadata> {
         this.ddmValidator = ddmValidator;
     }
 
+    /**
+     * @param emdCheck
+     *        how to check the resulting Easy Meta Data, {@link EmdCheck#STREAMING} by default
+     */
+    public void setEmdCheck(final EmdCheck emdCheck) {
+        this.emdCheck = emdCheck;
+    }
+
+    /** @return how the resulting Easy Meta Data is checked */
+    public EmdCheck getEmdCheck() {
+        return emdCheck;
+    }
+
+    /**
+     * @param metrics
+     *        receives the time and outcome of each stage of subsequent crosswalks, null (the default) to stop measuring
+     */
+    public void setMetrics(final Ddm2EmdMetrics metrics) {
+        this.metrics = metrics;
+        addCacheMetrics(metrics, cache);
+    }
+
+    /** @return null if the crosswalks are not measured */
+    public Ddm2EmdMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Results from a cache are returned without validation or parse, and without notifications. Only the overloads for files, paths, strings and byte
+     * arrays use the cache, a stream or reader can be read only once. The counters of the cache are published as "results" with the metrics.
+     * 
+     * @param cache
+     *        remembers the results of subsequent crosswalks, null (the default) to crosswalk every document
+     */
+    public void setCache(final Ddm2EmdCache cache) {
+        this.cache = cache;
+        addCacheMetrics(metrics, cache);
+    }
+
+    /** @return null if results are not cached */
+    public Ddm2EmdCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Crosswalks only the elements of the given sections. The elements of other sections are not buffered and don't create handlers, the resulting Easy
+     * Meta Data leaves those sections empty. The metadata format in the other section is derived from the first audience, so without
+     * {@link EmdSection#AUDIENCE} it is {@link MetadataFormat#DEFAULT} whatever the audience of the document. Results are not cached while a projection
+     * is set.
+     * 
+     * @param projection
+     *        the sections to crosswalk, null (the default) for all sections
+     */
+    public void setProjection(final Set<EmdSection> projection) {
+        if (projection == null)
+            this.projection = null;
+        else {
+            final Set<EmdSection> copy = EnumSet.noneOf(EmdSection.class);
+            copy.addAll(projection);
+            this.projection = Collections.unmodifiableSet(copy);
+        }
+    }
+
+    /** @return null if all sections are crosswalked */
+    public Set<EmdSection> getProjection() {
+        return projection;
+    }
+
+    /** @return null if results can't be cached */
+    private Ddm2EmdCache activeCache() {
+        return projection == null ? cache : null;
+    }
+
+    private static void addCacheMetrics(final Ddm2EmdMetrics metrics, final Ddm2EmdCache cache) {
+        if (metrics != null && cache != null)
+            metrics.addCache("results", cache.getMetrics());
+    }
+
+    @Override
+    protected void stageCompleted(final Stage stage, final long nanos, final boolean failed) {
+        final Ddm2EmdMetrics m = metrics;
+        if (m == null)
+            return;
+        if (stage == Stage.VALIDATION)
+            m.getValidation().record(nanos, failed);
+        else
+            m.getCrosswalk().record(nanos, failed);
+    }
+
     /**
      * Creates an object after validation against an XSD.
      * 
@@ -63,6 +199,8 @@ public class Ddm2EmdCrosswalk extends Crosswalker<EasyMetadata> {
      * @throws CrosswalkException
      */
     public EasyMetadata createFrom(final File file) throws CrosswalkException {
+        if (activeCache() != null)
+            return createFrom(readAll(file.toPath()));
         return validateEMD(walk(ddmValidator, file, newTarget()));
     }
 
@@ -75,6 +213,8 @@ public class Ddm2EmdCrosswalk extends Crosswalker<EasyMetadata> {
      * @throws CrosswalkException
      */
     public EasyMetadata createFromValidated(final File file) throws CrosswalkException {
+        if (activeCache() != null)
+            return createFromValidated(readAll(file.toPath()));
         return validateEMD(walk(null, file, newTarget()));
     }
 
@@ -87,7 +227,10 @@ public class Ddm2EmdCrosswalk extends Crosswalker<EasyMetadata> {
      * @throws CrosswalkException
      */
     public EasyMetadata createFrom(final String xml) throws CrosswalkException {
-        return validateEMD(walk(ddmValidator, xml, newTarget()));
+        final Ddm2EmdCache c = activeCache();
+        if (c == null)
+            return validateEMD(walk(ddmValidator, xml, newTarget()));
+        return cached(c, xml.getBytes(StandardCharsets.UTF_8), ddmValidator, () -> validateEMD(walk(ddmValidator, xml, newTarget())));
     }
 
     /**
@@ -99,27 +242,386 @@ public class Ddm2EmdCrosswalk extends Crosswalker<EasyMetadata> {
      * @throws CrosswalkException
      */
     public EasyMetadata createFromValidated(final String xml) throws CrosswalkException {
+        final Ddm2EmdCache c = activeCache();
+        if (c == null)
+            return validateEMD(walk(null, xml, newTarget()));
+        return cached(c, xml.getBytes(StandardCharsets.UTF_8), null, () -> validateEMD(walk(null, xml, newTarget())));
+    }
+
+    /**
+     * Creates an object after validation against an XSD.
+     * 
+     * @param path
+     *        of a file with XML content
+     * @return null if errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    public EasyMetadata createFrom(final Path path) throws CrosswalkException {
+        if (activeCache() != null)
+            return createFrom(readAll(path));
+        return validateEMD(walk(ddmValidator, path, newTarget()));
+    }
+
+    /**
+     * Creates an object assuming validation against an XSD has been done.
+     * 
+     * @param path
+     *        of a file with XML content
+     * @return null if errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    public EasyMetadata createFromValidated(final Path path) throws CrosswalkException {
+        if (activeCache() != null)
+            return createFromValidated(readAll(path));
+        return validateEMD(walk(null, path, newTarget()));
+    }
+
+    /**
+     * Creates an object after validation against an XSD.
+     * 
+     * @param xml
+     *        the XML content, the encoding is determined as for a file
+     * @return null if errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    public EasyMetadata createFrom(final byte[] xml) throws CrosswalkException {
+        final Ddm2EmdCache c = activeCache();
+        if (c == null)
+            return validateEMD(walk(ddmValidator, xml, newTarget()));
+        return cached(c, xml, ddmValidator, () -> validateEMD(walk(ddmValidator, xml, newTarget())));
+    }
+
+    /**
+     * Creates an object assuming validation against an XSD has been done.
+     * 
+     * @param xml
+     *        the XML content, the encoding is determined as for a file
+     * @return null if errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    public EasyMetadata createFromValidated(final byte[] xml) throws CrosswalkException {
+        final Ddm2EmdCache c = activeCache();
+        if (c == null)
+            return validateEMD(walk(null, xml, newTarget()));
+        return cached(c, xml, null, () -> validateEMD(walk(null, xml, newTarget())));
+    }
+
+    /**
+     * Creates an object after validation against an XSD.
+     * 
+     * @param xml
+     *        the remaining bytes are the XML content, the position of the buffer is not changed
+     * @return null if errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    public EasyMetadata createFrom(final ByteBuffer xml) throws CrosswalkException {
+        return validateEMD(walk(ddmValidator, xml, newTarget()));
+    }
+
+    /**
+     * Creates an object assuming validation against an XSD has been done.
+     * 
+     * @param xml
+     *        the remaining bytes are the XML content, the position of the buffer is not changed
+     * @return null if errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    public EasyMetadata createFromValidated(final ByteBuffer xml) throws CrosswalkException {
         return validateEMD(walk(null, xml, newTarget()));
     }
 
+    /**
+     * Creates an object after validation against an XSD.
+     * 
+     * @param xml
+     *        the XML content, read once and not closed
+     * @return null if errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    public EasyMetadata createFrom(final InputStream xml) throws CrosswalkException {
+        return validateEMD(walk(ddmValidator, xml, newTarget()));
+    }
+
+    /**
+     * Creates an object assuming validation against an XSD has been done.
+     * 
+     * @param xml
+     *        the XML content, read once and not closed
+     * @return null if errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    public EasyMetadata createFromValidated(final InputStream xml) throws CrosswalkException {
+        return validateEMD(walk(null, xml, newTarget()));
+    }
+
+    /**
+     * Creates an object after validation against an XSD.
+     * 
+     * @param xml
+     *        the XML content, read once and not closed
+     * @return null if errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    public EasyMetadata createFrom(final Reader xml) throws CrosswalkException {
+        return validateEMD(walk(ddmValidator, xml, newTarget()));
+    }
+
+    /**
+     * Creates an object assuming validation against an XSD has been done.
+     * 
+     * @param xml
+     *        the XML content, read once and not closed
+     * @return null if errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    public EasyMetadata createFromValidated(final Reader xml) throws CrosswalkException {
+        return validateEMD(walk(null, xml, newTarget()));
+    }
+
+    /**
+     * Starts a crosswalk that is fed with chunks of bytes as they arrive, with validation against an XSD in the same pass.
+     * Requires aalto-xml on the class path, see {@link nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkSession}.
+     * 
+     * @return a session collecting its own notifications
+     * @throws CrosswalkException
+     *         if aalto-xml is not on the class path
+     * @throws IllegalArgumentException
+     *         if the validator of this instance is not a {@link nl.knaw.dans.pf.language.xml.schema.CachedSchemaValidator}
+     */
+    public Ddm2EmdSession newSession() throws CrosswalkException, IllegalArgumentException {
+        return new Ddm2EmdSession(this, startSession(ddmValidator, newTarget()));
+    }
+
+    /**
+     * Starts a crosswalk that is fed with chunks of bytes as they arrive, assuming validation against an XSD has been done.
+     * Requires aalto-xml on the class path, see {@link nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkSession}.
+     * 
+     * @return a session collecting its own notifications
+     * @throws CrosswalkException
+     *         if aalto-xml is not on the class path
+     */
+    public Ddm2EmdSession newSessionForValidated() throws CrosswalkException {
+        return new Ddm2EmdSession(this, startSession(null, newTarget()));
+    }
+
+    /**
+     * Creates objects after validation against an XSD, with as many threads as there are processors.
+     * 
+     * @see #createFromAll(Collection, ExecutorService)
+     */
+    public List<Ddm2EmdResult> createFromAll(final Collection<File> files) throws CrosswalkException, InterruptedException {
+        return createFromAll(files, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates objects after validation against an XSD, with a thread pool that lives as long as the batch.
+     * 
+     * @param parallelism
+     *        the number of threads
+     * @see #createFromAll(Collection, ExecutorService)
+     */
+    public List<Ddm2EmdResult> createFromAll(final Collection<File> files, final int parallelism) throws CrosswalkException, InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            return createFromAll(files, executor);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Creates objects after validation against an XSD.
+     * 
+     * @see #createFromPaths(Iterable, ExecutorService)
+     */
+    public List<Ddm2EmdResult> createFromAll(final Collection<File> files, final ExecutorService executor) throws CrosswalkException, InterruptedException {
+        final List<Path> paths = new ArrayList<Path>(files.size());
+        for (final File file : files)
+            paths.add(file.toPath());
+        return createFromPaths(paths, executor);
+    }
+
+    /**
+     * Creates objects after validation against an XSD. The validator and the vocabularies are shared by the whole batch, each document gets its own
+     * {@link XMLErrorHandler}. A document that fails does not stop the others. All results are held until the whole batch is done, see
+     * {@link #createFromPaths(Iterable, ExecutorService, Consumer)} to receive them as they complete.
+     * 
+     * @param paths
+     *        of files with XML content, for a stream of paths pass <code>stream::iterator</code>
+     * @param executor
+     *        executes the crosswalk of each document, not shut down by this method
+     * @return the results in the order of the paths
+     * @throws CrosswalkException
+     *         if the handlers can not be initialized
+     * @throws InterruptedException
+     *         if interrupted while waiting for the results, unfinished crosswalks are cancelled
+     */
+    public List<Ddm2EmdResult> createFromPaths(final Iterable<Path> paths, final ExecutorService executor) throws CrosswalkException, InterruptedException {
+        warmUp();
+        final List<Path> inputs = new ArrayList<Path>();
+        final List<Callable<Ddm2EmdResult>> tasks = new ArrayList<Callable<Ddm2EmdResult>>();
+        for (final Path path : paths) {
+            inputs.add(path);
+            tasks.add(() -> createResult(path));
+        }
+        final List<Ddm2EmdResult> results = new ArrayList<Ddm2EmdResult>(tasks.size());
+        final Iterator<Path> pathIterator = inputs.iterator();
+        for (final Future<Ddm2EmdResult> future : executor.invokeAll(tasks))
+            results.add(resultOf(pathIterator.next(), future));
+        return results;
+    }
+
+    /**
+     * Creates objects after validation against an XSD and hands over each result as soon as it is complete, so a batch of any size holds only the results
+     * that are not yet consumed. The paths are taken as the executor makes progress, at most {@link #MAX_PENDING} documents are submitted but not yet
+     * consumed.
+     * 
+     * @param paths
+     *        of files with XML content, for a stream of paths pass <code>stream::iterator</code>
+     * @param executor
+     *        executes the crosswalk of each document, not shut down by this method
+     * @param consumer
+     *        receives the results in the order of completion, by the calling thread
+     * @throws CrosswalkException
+     *         if the handlers can not be initialized
+     * @throws InterruptedException
+     *         if interrupted while waiting for the results, unfinished crosswalks are cancelled
+     */
+    public void createFromPaths(final Iterable<Path> paths, final ExecutorService executor, final Consumer<Ddm2EmdResult> consumer)
+            throws CrosswalkException, InterruptedException {
+        warmUp();
+        final CompletionService<Ddm2EmdResult> completion = new ExecutorCompletionService<Ddm2EmdResult>(executor);
+        final Map<Future<Ddm2EmdResult>, Path> pending = new HashMap<Future<Ddm2EmdResult>, Path>();
+        final Iterator<Path> pathIterator = paths.iterator();
+        try {
+            while (pathIterator.hasNext() || !pending.isEmpty()) {
+                while (pending.size() < MAX_PENDING && pathIterator.hasNext()) {
+                    final Path path = pathIterator.next();
+                    pending.put(completion.submit(() -> createResult(path)), path);
+                }
+                final Future<Ddm2EmdResult> future = completion.take();
+                consumer.accept(resultOf(pending.remove(future), future));
+            }
+        }
+        finally {
+            for (final Future<Ddm2EmdResult> future : pending.keySet())
+                future.cancel(true);
+        }
+    }
+
+    private static Ddm2EmdResult resultOf(final Path path, final Future<Ddm2EmdResult> future) throws InterruptedException {
+        try {
+            return future.get();
+        }
+        catch (final ExecutionException e) {
+            final String msg = "unexpected failure of the crosswalk of " + path + ": " + e.getCause();
+            logger.error(msg, e.getCause());
+            return new Ddm2EmdResult(path, null, null, new CrosswalkException(msg, e.getCause()));
+        }
+    }
+
+    /** Runs on a thread of the batch, which may be a thread of the caller that has its own notifications. */
+    private Ddm2EmdResult createResult(final Path path) {
+        final XMLErrorHandler previous = getXmlErrorHandler();
+        final XMLErrorHandler errorHandler = newXmlErrorHandler();
+        setXmlErrorHandler(errorHandler);
+        try {
+            return new Ddm2EmdResult(path, createFrom(path), errorHandler, null);
+        }
+        catch (final CrosswalkException e) {
+            return new Ddm2EmdResult(path, null, errorHandler, e);
+        }
+        finally {
+            setXmlErrorHandler(previous);
+        }
+    }
+
+    /** Loads the vocabularies once rather than letting the threads of a batch compete for it. */
+    private void warmUp() throws CrosswalkException {
+        try {
+            Ddm2EmdHandlerMap.preload();
+        }
+        catch (final SAXException e) {
+            throw new CrosswalkException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected CrosswalkHandlerMap<EasyMetadata> newHandlerMap() {
+        return Ddm2EmdHandlerMap.newInstance(projection);
+    }
+
+    /** A crosswalk of a single document. */
+    private interface Walk {
+        EasyMetadata walk() throws CrosswalkException;
+    }
+
+    private EasyMetadata cached(final Ddm2EmdCache c, final byte[] xml, final AbstractValidator2 validator, final Walk walk) throws CrosswalkException {
+        final String key;
+        try {
+            key = c.key(xml, cacheSettings(validator != null));
+        }
+        catch (final SAXException e) {
+            throw new CrosswalkException(e.getMessage(), e);
+        }
+        final EasyMetadata cached = c.get(key);
+        if (cached != null)
+            return cached;
+        final EasyMetadata emd = walk.walk();
+        if (emd != null)
+            c.put(key, emd);
+        return emd;
+    }
+
+    /** @return the settings that may change the result of a document */
+    private String cacheSettings(final boolean validated) {
+        return "validated=" + validated + " emdCheck=" + emdCheck + " engine=" + getEngine() + " errorBudget=" + getErrorBudget();
+    }
+
+    private static byte[] readAll(final Path path) throws CrosswalkException {
+        try {
+            return Files.readAllBytes(path);
+        }
+        catch (final IOException e) {
+            throw new CrosswalkException("could not read: " + e.getMessage(), e);
+        }
+    }
+
     private EasyMetadata newTarget() {
         return EasyMetadataFactory.newEasyMetadata(MetadataFormat.DEFAULT);
     }
 
     private EasyMetadata validateEMD(final EasyMetadata emd) throws CrosswalkException {
-        if (getXmlErrorHandler().getErrors().size() > 0 || getXmlErrorHandler().getFatalErrors().size() > 0)
+        return validateEMD(emd, getXmlErrorHandler());
+    }
+
+    EasyMetadata validateEMD(final EasyMetadata emd, final XMLErrorHandler errorHandler) throws CrosswalkException {
+        if (emd == null || errorHandler.getErrors().size() > 0 || errorHandler.getFatalErrors().size() > 0)
             return null;
+        final EmdCheck check = emdCheck;
+        if (check == EmdCheck.OFF)
+            return emd;
+        final Ddm2EmdMetrics m = metrics;
+        final long start = System.nanoTime();
+        boolean failed = true;
         try {
             // incomplete fields may cause trouble
-            final String validatedXML = new EmdMarshaller(emd).getXmlString();
-            logger.debug(validatedXML);
+            if (check == EmdCheck.STREAMING)
+                new EmdMarshaller(emd).write(NULL_OUTPUT_STREAM);
+            else {
+                final String validatedXML = new EmdMarshaller(emd).getXmlString();
+                if (logger.isDebugEnabled())
+                    logger.debug(validatedXML);
+            }
+            failed = false;
             return emd;
         }
         catch (final XMLSerializationException e) {
             String msg = "resulting Easy Meta Data is invalid: ";
             logger.error(msg, e);
             try {
-                getXmlErrorHandler().error(new SAXParseException(msg + e.getMessage(), null));
+                errorHandler.error(new SAXParseException(msg + e.getMessage(), null));
             }
             catch (SAXException dummy) {
                 // wrap the original exception, do not re-wrap
@@ -127,5 +629,9 @@ public class Ddm2EmdCrosswalk extends Crosswalker<EasyMetadata> {
             }
             throw new CrosswalkException(msg + e.getMessage(), e);
         }
+        finally {
+            if (m != null)
+                m.getEmdCheck().record(System.nanoTime() - start, failed);
+        }
     }
 }
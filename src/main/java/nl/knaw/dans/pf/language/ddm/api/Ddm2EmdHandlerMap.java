@@ -67,10 +67,6 @@ import nl.knaw.dans.pf.language.ddm.handlers.spatial.SpatialBoxHandler;
 import nl.knaw.dans.pf.language.ddm.handlers.spatial.SpatialMultiPolygonHandler;
 import nl.knaw.dans.pf.language.ddm.handlers.spatial.SpatialPointHandler;
 import nl.knaw.dans.pf.language.ddm.handlers.spatial.SpatialPolygonHandler;
-import nl.knaw.dans.pf.language.ddm.handlertypes.BasicDateHandler;
-import nl.knaw.dans.pf.language.ddm.handlertypes.BasicIdentifierHandler;
-import nl.knaw.dans.pf.language.ddm.handlertypes.BasicStringHandler;
-import nl.knaw.dans.pf.language.ddm.handlertypes.IsoDateHandler;
 import nl.knaw.dans.pf.language.ddm.relationhandlers.DcRelationHandler;
 import nl.knaw.dans.pf.language.ddm.relationhandlers.DdmConformsToHandler;
 import nl.knaw.dans.pf.language.ddm.relationhandlers.DdmHasFormatHandler;
@@ -100,264 +96,424 @@ import nl.knaw.dans.pf.language.ddm.relationhandlers.TermsReferencesHandler;
 import nl.knaw.dans.pf.language.ddm.relationhandlers.TermsReplacesHandler;
 import nl.knaw.dans.pf.language.ddm.relationhandlers.TermsRequiresHandler;
 import nl.knaw.dans.pf.language.emd.EasyMetadata;
+import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkDispatchTable;
+import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkDispatchTable.Registration;
 import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkHandler;
+import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkHandlerFactory;
 import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkHandlerMap;
-import nl.knaw.dans.pf.language.xml.vocabulary.MapFromXSD;
+import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkHandlerPool;
+import nl.knaw.dans.pf.language.xml.crosswalk.DiscardHandler;
+import nl.knaw.dans.pf.language.xml.vocabulary.VocabularySnapshot;
 import org.dom4j.DocumentException;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
+/**
+ * Knows which handler to use for which DDM element. The handlers keep state while processing an element, so an instance should be used by a single walk
+ * at a time. Use {@link #newInstance()} to get handlers for concurrent walks. All instances share the registered {@link CrosswalkHandlerFactory}s, each
+ * instance creates its own handlers on first demand. An instance with a projection lets the elements of other {@link EmdSection}s pass without effect.
+ */
 public class Ddm2EmdHandlerMap implements CrosswalkHandlerMap<EasyMetadata> {
-    private static final SkippedFieldHandler SKIPPED_FIELD_HANDLER = new SkippedFieldHandler(null);
-    private static final CrosswalkHandler<EasyMetadata> NOT_YET_IMPLEMENTED = new SkippedFieldHandler("not yet configured/implemented");
-    private static final Ddm2EmdHandlerMap INSTANCE = new Ddm2EmdHandlerMap();
-    private static Map<String, String> uri2prefix = initNameSpaceMap();
-    private static Map<String, CrosswalkHandler<EasyMetadata>> map;
+    private static final Ddm2EmdHandlerMap INSTANCE = new Ddm2EmdHandlerMap(null);
+    private static final String XSI_URI = NameSpace.XSI.uri;
+    private static volatile Registry registry;
+    private static final CrosswalkHandlerFactory<EasyMetadata> DISCARD = pool -> new DiscardHandler<EasyMetadata>();
+
+    private final CrosswalkHandlerPool<EasyMetadata> pool = new CrosswalkHandlerPool<EasyMetadata>();
+
+    /** null for all sections */
+    private final Set<EmdSection> projection;
+
+    /** The last lookup, {@link CrosswalkHandler} asks for a missing handler right after asking for the handler of the same element. */
+    private String lastUri;
+    private String lastLocalName;
+    private String lastType;
+    private Registration<EasyMetadata> lastRegistration;
+
+    /**
+     * The registered factories by key, the same factories prepared for lookups, the section each factory contributes to and a digest of the keys and the
+     * vocabularies.
+     */
+    private static class Registry {
+        private final Map<String, CrosswalkHandlerFactory<EasyMetadata>> factories;
+        private final CrosswalkDispatchTable<EasyMetadata> dispatchTable = new CrosswalkDispatchTable<EasyMetadata>();
+        private final Map<CrosswalkHandlerFactory<EasyMetadata>, EmdSection> sections = new IdentityHashMap<CrosswalkHandlerFactory<EasyMetadata>, EmdSection>();
+        private final String version;
+
+        private Registry(final Map<String, CrosswalkHandlerFactory<EasyMetadata>> factories, final Map<String, Map<String, String>> vocabularies) {
+            this.factories = Collections.unmodifiableMap(factories);
+            this.version = digest(factories.keySet(), vocabularies);
+            final Map<String, String> prefix2uri = new HashMap<String, String>();
+            for (final NameSpace ns : NameSpace.values())
+                prefix2uri.put(ns.prefix, ns.uri);
+            for (final Map.Entry<String, CrosswalkHandlerFactory<EasyMetadata>> entry : factories.entrySet()) {
+                // type/prefix:localName
+                final String key = entry.getKey();
+                final int slash = key.indexOf('/');
+                final int colon = key.indexOf(':', slash);
+                final String uri = prefix2uri.get(key.substring(slash + 1, colon));
+                if (uri == null)
+                    throw new IllegalStateException("unknown name space prefix in " + key);
+                final String localName = key.substring(colon + 1);
+                dispatchTable.register(uri, localName, key.substring(0, slash), key, entry.getValue());
+                final EmdSection section = EmdSection.of(localName);
+                if (entry.getValue() != null && sections.containsKey(entry.getValue()) && sections.get(entry.getValue()) != section)
+                    throw new IllegalStateException("handler of " + key + " contributes to " + section + " and " + sections.get(entry.getValue()));
+                if (entry.getValue() != null)
+                    sections.put(entry.getValue(), section);
+            }
+        }
+
+        private static String digest(final Set<String> keys, final Map<String, Map<String, String>> vocabularies) {
+            final MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            }
+            catch (final NoSuchAlgorithmException e) {
+                // required for every Java platform
+                throw new IllegalStateException(e);
+            }
+            for (final String key : new TreeSet<String>(keys))
+                update(digest, key);
+            for (final Map.Entry<String, Map<String, String>> vocabulary : new TreeMap<String, Map<String, String>>(vocabularies).entrySet()) {
+                update(digest, vocabulary.getKey());
+                for (final Map.Entry<String, String> entry : new TreeMap<String, String>(vocabulary.getValue()).entrySet()) {
+                    update(digest, entry.getKey());
+                    update(digest, entry.getValue());
+                }
+            }
+            final StringBuilder hex = new StringBuilder();
+            for (final byte b : digest.digest())
+                hex.append(String.format("%02x", b));
+            return hex.toString();
+        }
+
+        private static void update(final MessageDigest digest, final String s) {
+            digest.update(s.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+    }
 
+    /**
+     * @return an instance shared by anyone who asks for it, not suitable for concurrent walks.
+     */
     public static Ddm2EmdHandlerMap getInstance() {
         return INSTANCE;
     }
 
-    private static Map<String, String> initNameSpaceMap() {
-        final Map<String, String> map = new HashMap<String, String>();
-        for (final NameSpace ns : NameSpace.values())
-            map.put(ns.uri, ns.prefix);
-        return map;
+    /**
+     * @return an instance with its own handlers, suitable for one walk at a time.
+     */
+    public static Ddm2EmdHandlerMap newInstance() {
+        return new Ddm2EmdHandlerMap(null);
+    }
+
+    /**
+     * @param projection
+     *        the sections to crosswalk, null for all sections
+     * @return an instance with its own handlers, suitable for one walk at a time. Elements of other sections, and fields that are not crosswalked at all,
+     *         are handed to a handler that ignores their content.
+     */
+    public static Ddm2EmdHandlerMap newInstance(final Set<EmdSection> projection) {
+        return new Ddm2EmdHandlerMap(projection == null ? null : copyOf(projection));
+    }
+
+    private static Set<EmdSection> copyOf(final Set<EmdSection> sections) {
+        final Set<EmdSection> copy = EnumSet.noneOf(EmdSection.class);
+        copy.addAll(sections);
+        return copy;
     }
 
-    /** no instantiation for a singleton */
-    private Ddm2EmdHandlerMap() {}
+    /** no public instantiation, see the static methods */
+    private Ddm2EmdHandlerMap(final Set<EmdSection> projection) {
+        this.projection = projection;
+    }
 
     /** TODO let test achieve this with mocking and make the class not public */
     public Set<String> getKeys() throws SAXException {
-        return getMap().keySet();
+        return getRegistry().factories.keySet();
     }
 
-    /** lazy initialization */
-    private Map<String, CrosswalkHandler<EasyMetadata>> getMap() throws SAXException {
-        if (map == null) {
-            // note that a recursive chain of handlers would require multiple instances of handlers
-            map = new HashMap<String, CrosswalkHandler<EasyMetadata>>();
-
-            // TODO by business ingester: dateAvalable in two year range, no PID no AIP-ID
-            putAudienceHandlers();
-            putAuthorHandlers();
-            putDateHandlers();
-            putRelationHandlers();
-            putAboutHandlers();
-            putMiscellaneousHandlers();
-
-            // avoid missing handler warnings
-            putHandledByChilds();
-            putNotImplementedHandlers();
+    /**
+     * Loads the vocabularies and prepares the lookups now rather than during the first walk.
+     * 
+     * @throws SAXException
+     *         if a vocabulary could not be loaded
+     */
+    public static void preload() throws SAXException {
+        getRegistry();
+    }
+
+    /**
+     * @return a digest of the registered keys and the content of the vocabularies, changes when either changes
+     * @throws SAXException
+     *         if a vocabulary could not be loaded
+     */
+    public static String getVersion() throws SAXException {
+        return getRegistry().version;
+    }
+
+    /** lazy initialization, once for all instances */
+    private static Registry getRegistry() throws SAXException {
+        Registry result = registry;
+        if (result == null) {
+            synchronized (Ddm2EmdHandlerMap.class) {
+                result = registry;
+                if (result == null) {
+                    final Map<String, CrosswalkHandlerFactory<EasyMetadata>> map = new HashMap<String, CrosswalkHandlerFactory<EasyMetadata>>();
+                    final Map<String, Map<String, String>> vocabularies = new HashMap<String, Map<String, String>>();
+
+                    // TODO by business ingester: dateAvalable in two year range, no PID no AIP-ID
+                    putAudienceHandlers(map, vocabularies);
+                    putAuthorHandlers(map);
+                    putDateHandlers(map);
+                    putRelationHandlers(map);
+                    putAboutHandlers(map);
+                    putMiscellaneousHandlers(map);
+
+                    // avoid missing handler warnings
+                    putHandledByChilds(map);
+                    putNotImplementedHandlers(map);
+
+                    result = registry = new Registry(map, vocabularies);
+                }
+            }
         }
-        return map;
+        return result;
     }
 
     @Override
     public CrosswalkHandler<EasyMetadata> getHandler(final String uri, final String localName, final Attributes attributes) throws SAXException {
-        final String key = toHandlerKey(uri, localName, attributes);
-        return getMap().get(key);
+        final Registration<EasyMetadata> registration = lookup(uri, localName, attributes);
+        if (registration == null || registration.getFactory() == null)
+            return null;
+        final CrosswalkHandlerFactory<EasyMetadata> factory = registration.getFactory();
+        if (projection != null && !projection.contains(getRegistry().sections.get(factory)))
+            return pool.get(DISCARD);
+        return pool.get(factory);
     }
 
     @Override
     public boolean reportMissingHandler(final String uri, final String localName, final Attributes attributes) throws SAXException {
-        final String key = toHandlerKey(uri, localName, attributes);
-        return !getMap().containsKey(key);
+        return lookup(uri, localName, attributes) == null;
+    }
+
+    /** @return the registered type/prefix:localName, {uri}localName for an element that is not registered */
+    @Override
+    public String getKey(final String uri, final String localName, final Attributes attributes) throws SAXException {
+        final Registration<EasyMetadata> registration = lookup(uri, localName, attributes);
+        if (registration == null)
+            return CrosswalkHandlerMap.super.getKey(uri, localName, attributes);
+        return registration.getKey();
     }
 
     /**
-     * @param uri
-     * @param localName
-     * @param attributes
-     * @return [type/ns:localName] where<br>
-     *         ns = translated to an internal name space prefix<br>
-     *         type = the local name of the type attribute
+     * Finds what is registered for [type/ns:localName] where ns is the internal name space prefix of the uri and type the local name of the type
+     * attribute.
+     * 
      * @throws SAXException
-     *         if lazy initialization of the map fails
+     *         if lazy initialization of the registry fails
      */
-    private String toHandlerKey(final String uri, final String localName, final Attributes attributes) throws SAXException {
-        final String element = uri2prefix.get(uri) + ":" + localName;
-
+    private Registration<EasyMetadata> lookup(final String uri, final String localName, final Attributes attributes) throws SAXException {
         // fix name space prefix when the local names become ambiguous
-        final String type = toLocalName(attributes.getValue(NameSpace.XSI.uri, "type"));
-
-        return type + "/" + element;
+        final String type = attributes.getValue(XSI_URI, "type");
+        if (uri != lastUri || localName != lastLocalName || type != lastType) {
+            lastRegistration = getRegistry().dispatchTable.lookup(uri, localName, type);
+            lastUri = uri;
+            lastLocalName = localName;
+            lastType = type;
+        }
+        return lastRegistration;
     }
 
-    private Map<String, String> loadVocabulary(final String xsd) throws SAXException {
+    /** Loads a vocabulary and adds it to the vocabularies by XSD. */
+    private static Map<String, String> loadVocabulary(final String xsd, final Map<String, Map<String, String>> vocabularies) throws SAXException {
         try {
-            return new MapFromXSD(xsd).getEnum2appInfo();
+            final Map<String, String> vocabulary = Collections.unmodifiableMap(VocabularySnapshot.load(xsd).getEnum2appInfo());
+            vocabularies.put(xsd, vocabulary);
+            return vocabulary;
         }
         catch (final DocumentException e) {
             throw new SAXException("could not load map [" + xsd + "] " + e.getMessage(), e);
         }
     }
 
-    private void putAudienceHandlers() throws SAXException {
-        final BasicStringHandler narcisHandler = new AudienceHandler(loadVocabulary(NameSpace.NARCIS_TYPE.xsd));
+    private static void putAudienceHandlers(final Map<String, CrosswalkHandlerFactory<EasyMetadata>> map, final Map<String, Map<String, String>> vocabularies)
+            throws SAXException
+    {
+        final Map<String, String> narcisVocabulary = loadVocabulary(NameSpace.NARCIS_TYPE.xsd, vocabularies);
+        final CrosswalkHandlerFactory<EasyMetadata> narcisHandler = pool -> new AudienceHandler(narcisVocabulary);
         map.put("/ddm:audience", narcisHandler);
         map.put("DisciplineType/dcterms:audience", narcisHandler);
-        final BasicStringHandler audienceHandler = new AudienceHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> audienceHandler = pool -> new AudienceHandler();
         map.put("/dcterms:audience", audienceHandler);
         map.put("/dcterms:educationLevel", audienceHandler);
     }
 
-    private void putAuthorHandlers() {
-        final BasicStringHandler simpleCreatorHandler = new SimpleCreatorHandler();
-        final BasicStringHandler simpleContributorHandler = new SimpleContributorHandler();
+    private static void putAuthorHandlers(final Map<String, CrosswalkHandlerFactory<EasyMetadata>> map) {
+        final CrosswalkHandlerFactory<EasyMetadata> simpleCreatorHandler = pool -> new SimpleCreatorHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> simpleContributorHandler = pool -> new SimpleContributorHandler();
         map.put("/dc:creator", simpleCreatorHandler);
         map.put("/dc:contributor", simpleContributorHandler);
         map.put("/dcterms:creator", simpleCreatorHandler);
         map.put("/dcterms:contributor", simpleContributorHandler);
-        map.put("/dcterms:rightsHolder", new TermsRightsHolderHandler());
-        map.put("/dcx-dai:contributorDetails", new ContributorDetailsHandler());
-        map.put("/dcx-dai:creatorDetails", new CreatorDetailsHandler());
-        map.put("/dcx-dai:creator", new DaiCreatorHandler());
-        map.put("/dcx-dai:contributor", new DaiContributorHandler());
-        map.put("/ddm:funding", new FundingHandler());
+        map.put("/dcterms:rightsHolder", pool -> new TermsRightsHolderHandler());
+        map.put("/dcx-dai:contributorDetails", pool -> new ContributorDetailsHandler());
+        map.put("/dcx-dai:creatorDetails", pool -> new CreatorDetailsHandler());
+        map.put("/dcx-dai:creator", pool -> new DaiCreatorHandler());
+        map.put("/dcx-dai:contributor", pool -> new DaiContributorHandler());
+        map.put("/ddm:funding", pool -> new FundingHandler());
     }
 
-    private void putRelationHandlers() {
-        final BasicStringHandler dcRelationHandler = new DcRelationHandler();
+    private static void putRelationHandlers(final Map<String, CrosswalkHandlerFactory<EasyMetadata>> map) {
+        final CrosswalkHandlerFactory<EasyMetadata> dcRelationHandler = pool -> new DcRelationHandler();
 
         map.put("/dc:relation", dcRelationHandler);
 
         map.put("/dcterms:relation", dcRelationHandler);
-        map.put("/dcterms:conformsTo", new TermsConformsToHandler());
-        map.put("/dcterms:isVersionOf", new TermsIsVersionOfHandler());
-        map.put("/dcterms:hasVersion", new TermsHasVersionHandler());
-        map.put("/dcterms:isReplacedBy", new TermsIsReplacedByHandler());
-        map.put("/dcterms:replaces", new TermsReplacesHandler());
-        map.put("/dcterms:isRequiredBy", new TermsIsRequiredByHandler());
-        map.put("/dcterms:requires", new TermsRequiresHandler());
-        map.put("/dcterms:isPartOf", new TermsIsPartOfHandler());
-        map.put("/dcterms:hasPart", new TermsHasPartHandler());
-        map.put("/dcterms:isReferencedBy", new TermsIsReferencedByHandler());
-        map.put("/dcterms:references", new TermsReferencesHandler());
-        map.put("/dcterms:isFormatOf", new TermsIsFormatOfHandler());
-        map.put("/dcterms:hasFormat", new TermsHasFormatHandler());
-
-        map.put("ISBN/dcterms:relation", new DcRelationHandler("ISBN"));
-        map.put("ISBN/dcterms:conformsTo", new TermsConformsToHandler("ISBN"));
-        map.put("ISBN/dcterms:isVersionOf", new TermsIsVersionOfHandler("ISBN"));
-        map.put("ISBN/dcterms:hasVersion", new TermsHasVersionHandler("ISBN"));
-        map.put("ISBN/dcterms:isReplacedBy", new TermsIsReplacedByHandler("ISBN"));
-        map.put("ISBN/dcterms:replaces", new TermsReplacesHandler("ISBN"));
-        map.put("ISBN/dcterms:isRequiredBy", new TermsIsRequiredByHandler("ISBN"));
-        map.put("ISBN/dcterms:requires", new TermsRequiresHandler("ISBN"));
-        map.put("ISBN/dcterms:isPartOf", new TermsIsPartOfHandler("ISBN"));
-        map.put("ISBN/dcterms:hasPart", new TermsHasPartHandler("ISBN"));
-        map.put("ISBN/dcterms:isReferencedBy", new TermsIsReferencedByHandler("ISBN"));
-        map.put("ISBN/dcterms:references", new TermsReferencesHandler("ISBN"));
-        map.put("ISBN/dcterms:isFormatOf", new TermsIsFormatOfHandler("ISBN"));
-        map.put("ISBN/dcterms:hasFormat", new TermsHasFormatHandler("ISBN"));
-
-        map.put("ISSN/dcterms:relation", new DcRelationHandler("ISSN"));
-        map.put("ISSN/dcterms:conformsTo", new TermsConformsToHandler("ISSN"));
-        map.put("ISSN/dcterms:isVersionOf", new TermsIsVersionOfHandler("ISSN"));
-        map.put("ISSN/dcterms:hasVersion", new TermsHasVersionHandler("ISSN"));
-        map.put("ISSN/dcterms:isReplacedBy", new TermsIsReplacedByHandler("ISSN"));
-        map.put("ISSN/dcterms:replaces", new TermsReplacesHandler("ISSN"));
-        map.put("ISSN/dcterms:isRequiredBy", new TermsIsRequiredByHandler("ISSN"));
-        map.put("ISSN/dcterms:requires", new TermsRequiresHandler("ISSN"));
-        map.put("ISSN/dcterms:isPartOf", new TermsIsPartOfHandler("ISSN"));
-        map.put("ISSN/dcterms:hasPart", new TermsHasPartHandler("ISSN"));
-        map.put("ISSN/dcterms:isReferencedBy", new TermsIsReferencedByHandler("ISSN"));
-        map.put("ISSN/dcterms:references", new TermsReferencesHandler("ISSN"));
-        map.put("ISSN/dcterms:isFormatOf", new TermsIsFormatOfHandler("ISSN"));
-        map.put("ISSN/dcterms:hasFormat", new TermsHasFormatHandler("ISSN"));
-
-        map.put("NWO-PROJECTNR/dcterms:relation", new DcRelationHandler("NWO-PROJECTNR"));
-        map.put("NWO-PROJECTNR/dcterms:conformsTo", new TermsConformsToHandler("NWO-PROJECTNR"));
-        map.put("NWO-PROJECTNR/dcterms:isVersionOf", new TermsIsVersionOfHandler("NWO-PROJECTNR"));
-        map.put("NWO-PROJECTNR/dcterms:hasVersion", new TermsHasVersionHandler("NWO-PROJECTNR"));
-        map.put("NWO-PROJECTNR/dcterms:isReplacedBy", new TermsIsReplacedByHandler("NWO-PROJECTNR"));
-        map.put("NWO-PROJECTNR/dcterms:replaces", new TermsReplacesHandler("NWO-PROJECTNR"));
-        map.put("NWO-PROJECTNR/dcterms:isRequiredBy", new TermsIsRequiredByHandler("NWO-PROJECTNR"));
-        map.put("NWO-PROJECTNR/dcterms:requires", new TermsRequiresHandler("NWO-PROJECTNR"));
-        map.put("NWO-PROJECTNR/dcterms:isPartOf", new TermsIsPartOfHandler("NWO-PROJECTNR"));
-        map.put("NWO-PROJECTNR/dcterms:hasPart", new TermsHasPartHandler("NWO-PROJECTNR"));
-        map.put("NWO-PROJECTNR/dcterms:isReferencedBy", new TermsIsReferencedByHandler("NWO-PROJECTNR"));
-        map.put("NWO-PROJECTNR/dcterms:references", new TermsReferencesHandler("NWO-PROJECTNR"));
-        map.put("NWO-PROJECTNR/dcterms:isFormatOf", new TermsIsFormatOfHandler("NWO-PROJECTNR"));
-        map.put("NWO-PROJECTNR/dcterms:hasFormat", new TermsHasFormatHandler("NWO-PROJECTNR"));
-
-        map.put("/ddm:relation", new DdmRelationHandler());
-        map.put("/ddm:conformsTo", new DdmConformsToHandler());
-        map.put("/ddm:isVersionOf", new DdmIsVersionOfHandler());
-        map.put("/ddm:hasVersion", new DdmHasVersionHandler());
-        map.put("/ddm:isReplacedBy", new DdmIsReplacedByHandler());
-        map.put("/ddm:replaces", new DdmReplacesHandler());
-        map.put("/ddm:isRequiredBy", new DdmIsRequiredByHandler());
-        map.put("/ddm:requires", new DdmRequiresHandler());
-        map.put("/ddm:isPartOf", new DdmIsPartOfHandler());
-        map.put("/ddm:hasPart", new DdmHasPartHandler());
-        map.put("/ddm:isReferencedBy", new DdmIsReferencedByHandler());
-        map.put("/ddm:references", new DdmReferencesHandler());
-        map.put("/ddm:isFormatOf", new DdmIsFormatOfHandler());
-        map.put("/ddm:hasFormat", new DdmHasFormatHandler());
+        map.put("/dcterms:conformsTo", pool -> new TermsConformsToHandler());
+        map.put("/dcterms:isVersionOf", pool -> new TermsIsVersionOfHandler());
+        map.put("/dcterms:hasVersion", pool -> new TermsHasVersionHandler());
+        map.put("/dcterms:isReplacedBy", pool -> new TermsIsReplacedByHandler());
+        map.put("/dcterms:replaces", pool -> new TermsReplacesHandler());
+        map.put("/dcterms:isRequiredBy", pool -> new TermsIsRequiredByHandler());
+        map.put("/dcterms:requires", pool -> new TermsRequiresHandler());
+        map.put("/dcterms:isPartOf", pool -> new TermsIsPartOfHandler());
+        map.put("/dcterms:hasPart", pool -> new TermsHasPartHandler());
+        map.put("/dcterms:isReferencedBy", pool -> new TermsIsReferencedByHandler());
+        map.put("/dcterms:references", pool -> new TermsReferencesHandler());
+        map.put("/dcterms:isFormatOf", pool -> new TermsIsFormatOfHandler());
+        map.put("/dcterms:hasFormat", pool -> new TermsHasFormatHandler());
+
+        map.put("ISBN/dcterms:relation", pool -> new DcRelationHandler("ISBN"));
+        map.put("ISBN/dcterms:conformsTo", pool -> new TermsConformsToHandler("ISBN"));
+        map.put("ISBN/dcterms:isVersionOf", pool -> new TermsIsVersionOfHandler("ISBN"));
+        map.put("ISBN/dcterms:hasVersion", pool -> new TermsHasVersionHandler("ISBN"));
+        map.put("ISBN/dcterms:isReplacedBy", pool -> new TermsIsReplacedByHandler("ISBN"));
+        map.put("ISBN/dcterms:replaces", pool -> new TermsReplacesHandler("ISBN"));
+        map.put("ISBN/dcterms:isRequiredBy", pool -> new TermsIsRequiredByHandler("ISBN"));
+        map.put("ISBN/dcterms:requires", pool -> new TermsRequiresHandler("ISBN"));
+        map.put("ISBN/dcterms:isPartOf", pool -> new TermsIsPartOfHandler("ISBN"));
+        map.put("ISBN/dcterms:hasPart", pool -> new TermsHasPartHandler("ISBN"));
+        map.put("ISBN/dcterms:isReferencedBy", pool -> new TermsIsReferencedByHandler("ISBN"));
+        map.put("ISBN/dcterms:references", pool -> new TermsReferencesHandler("ISBN"));
+        map.put("ISBN/dcterms:isFormatOf", pool -> new TermsIsFormatOfHandler("ISBN"));
+        map.put("ISBN/dcterms:hasFormat", pool -> new TermsHasFormatHandler("ISBN"));
+
+        map.put("ISSN/dcterms:relation", pool -> new DcRelationHandler("ISSN"));
+        map.put("ISSN/dcterms:conformsTo", pool -> new TermsConformsToHandler("ISSN"));
+        map.put("ISSN/dcterms:isVersionOf", pool -> new TermsIsVersionOfHandler("ISSN"));
+        map.put("ISSN/dcterms:hasVersion", pool -> new TermsHasVersionHandler("ISSN"));
+        map.put("ISSN/dcterms:isReplacedBy", pool -> new TermsIsReplacedByHandler("ISSN"));
+        map.put("ISSN/dcterms:replaces", pool -> new TermsReplacesHandler("ISSN"));
+        map.put("ISSN/dcterms:isRequiredBy", pool -> new TermsIsRequiredByHandler("ISSN"));
+        map.put("ISSN/dcterms:requires", pool -> new TermsRequiresHandler("ISSN"));
+        map.put("ISSN/dcterms:isPartOf", pool -> new TermsIsPartOfHandler("ISSN"));
+        map.put("ISSN/dcterms:hasPart", pool -> new TermsHasPartHandler("ISSN"));
+        map.put("ISSN/dcterms:isReferencedBy", pool -> new TermsIsReferencedByHandler("ISSN"));
+        map.put("ISSN/dcterms:references", pool -> new TermsReferencesHandler("ISSN"));
+        map.put("ISSN/dcterms:isFormatOf", pool -> new TermsIsFormatOfHandler("ISSN"));
+        map.put("ISSN/dcterms:hasFormat", pool -> new TermsHasFormatHandler("ISSN"));
+
+        map.put("NWO-PROJECTNR/dcterms:relation", pool -> new DcRelationHandler("NWO-PROJECTNR"));
+        map.put("NWO-PROJECTNR/dcterms:conformsTo", pool -> new TermsConformsToHandler("NWO-PROJECTNR"));
+        map.put("NWO-PROJECTNR/dcterms:isVersionOf", pool -> new TermsIsVersionOfHandler("NWO-PROJECTNR"));
+        map.put("NWO-PROJECTNR/dcterms:hasVersion", pool -> new TermsHasVersionHandler("NWO-PROJECTNR"));
+        map.put("NWO-PROJECTNR/dcterms:isReplacedBy", pool -> new TermsIsReplacedByHandler("NWO-PROJECTNR"));
+        map.put("NWO-PROJECTNR/dcterms:replaces", pool -> new TermsReplacesHandler("NWO-PROJECTNR"));
+        map.put("NWO-PROJECTNR/dcterms:isRequiredBy", pool -> new TermsIsRequiredByHandler("NWO-PROJECTNR"));
+        map.put("NWO-PROJECTNR/dcterms:requires", pool -> new TermsRequiresHandler("NWO-PROJECTNR"));
+        map.put("NWO-PROJECTNR/dcterms:isPartOf", pool -> new TermsIsPartOfHandler("NWO-PROJECTNR"));
+        map.put("NWO-PROJECTNR/dcterms:hasPart", pool -> new TermsHasPartHandler("NWO-PROJECTNR"));
+        map.put("NWO-PROJECTNR/dcterms:isReferencedBy", pool -> new TermsIsReferencedByHandler("NWO-PROJECTNR"));
+        map.put("NWO-PROJECTNR/dcterms:references", pool -> new TermsReferencesHandler("NWO-PROJECTNR"));
+        map.put("NWO-PROJECTNR/dcterms:isFormatOf", pool -> new TermsIsFormatOfHandler("NWO-PROJECTNR"));
+        map.put("NWO-PROJECTNR/dcterms:hasFormat", pool -> new TermsHasFormatHandler("NWO-PROJECTNR"));
+
+        map.put("/ddm:relation", pool -> new DdmRelationHandler());
+        map.put("/ddm:conformsTo", pool -> new DdmConformsToHandler());
+        map.put("/ddm:isVersionOf", pool -> new DdmIsVersionOfHandler());
+        map.put("/ddm:hasVersion", pool -> new DdmHasVersionHandler());
+        map.put("/ddm:isReplacedBy", pool -> new DdmIsReplacedByHandler());
+        map.put("/ddm:replaces", pool -> new DdmReplacesHandler());
+        map.put("/ddm:isRequiredBy", pool -> new DdmIsRequiredByHandler());
+        map.put("/ddm:requires", pool -> new DdmRequiresHandler());
+        map.put("/ddm:isPartOf", pool -> new DdmIsPartOfHandler());
+        map.put("/ddm:hasPart", pool -> new DdmHasPartHandler());
+        map.put("/ddm:isReferencedBy", pool -> new DdmIsReferencedByHandler());
+        map.put("/ddm:references", pool -> new DdmReferencesHandler());
+        map.put("/ddm:isFormatOf", pool -> new DdmIsFormatOfHandler());
+        map.put("/ddm:hasFormat", pool -> new DdmHasFormatHandler());
     }
 
-    private void putNotImplementedHandlers() {
-        map.put("/dcterms:instructionalMethod", SKIPPED_FIELD_HANDLER);
-        map.put("/dcterms:accrualMethod", SKIPPED_FIELD_HANDLER);
-        map.put("/dcterms:accrualPolicy", SKIPPED_FIELD_HANDLER);
-        map.put("/dcterms:accrualPeriodicity", SKIPPED_FIELD_HANDLER);
-
-        map.put("/dcterms:mediator", SKIPPED_FIELD_HANDLER);
-        map.put("/dcterms:provenance", SKIPPED_FIELD_HANDLER);
-        map.put("/dcterms:bibliographicCitation", SKIPPED_FIELD_HANDLER);
-        map.put("/dcterms:medium", SKIPPED_FIELD_HANDLER);
-        map.put("/dcterms:extent", SKIPPED_FIELD_HANDLER);
-        map.put("/dcterms:abstract", SKIPPED_FIELD_HANDLER);
-        map.put("/dcterms:tableOfContents", SKIPPED_FIELD_HANDLER);
+    private static void putNotImplementedHandlers(final Map<String, CrosswalkHandlerFactory<EasyMetadata>> map) {
+        final CrosswalkHandlerFactory<EasyMetadata> skippedFieldHandler = pool -> new SkippedFieldHandler(null);
+        map.put("/dcterms:instructionalMethod", skippedFieldHandler);
+        map.put("/dcterms:accrualMethod", skippedFieldHandler);
+        map.put("/dcterms:accrualPolicy", skippedFieldHandler);
+        map.put("/dcterms:accrualPeriodicity", skippedFieldHandler);
+
+        map.put("/dcterms:mediator", skippedFieldHandler);
+        map.put("/dcterms:provenance", skippedFieldHandler);
+        map.put("/dcterms:bibliographicCitation", skippedFieldHandler);
+        map.put("/dcterms:medium", skippedFieldHandler);
+        map.put("/dcterms:extent", skippedFieldHandler);
+        map.put("/dcterms:abstract", skippedFieldHandler);
+        map.put("/dcterms:tableOfContents", skippedFieldHandler);
     }
 
-    private void putDateHandlers() {
+    private static void putDateHandlers(final Map<String, CrosswalkHandlerFactory<EasyMetadata>> map) {
         // EasyMetadataImpl: EmdDate emdDate;
-        final IsoDateHandler easCreatedHandler = new EasCreatedHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> easCreatedHandler = pool -> new EasCreatedHandler();
         map.put("/ddm:created", easCreatedHandler);
         map.put("W3CDTF/dcterms:created", easCreatedHandler);
-        map.put("/dcterms:created", new TermsCreatedHandler());
+        map.put("/dcterms:created", pool -> new TermsCreatedHandler());
 
-        final IsoDateHandler easAvailableHandler = new EasAvailableHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> easAvailableHandler = pool -> new EasAvailableHandler();
         map.put("/ddm:available", easAvailableHandler);
         map.put("W3CDTF/dcterms:available", easAvailableHandler);
-        map.put("/dcterms:available", new TermsAvailableHandler());
+        map.put("/dcterms:available", pool -> new TermsAvailableHandler());
 
-        map.put("W3CDTF/dcterms:valid", new EasValidHandler());
-        map.put("/dcterms:valid", new TermsValidHandler());
+        map.put("W3CDTF/dcterms:valid", pool -> new EasValidHandler());
+        map.put("/dcterms:valid", pool -> new TermsValidHandler());
 
-        map.put("W3CDTF/dcterms:issued", new EasIssuedHandler());
-        map.put("/dcterms:issued", new TermsIssuedHandler());
+        map.put("W3CDTF/dcterms:issued", pool -> new EasIssuedHandler());
+        map.put("/dcterms:issued", pool -> new TermsIssuedHandler());
 
-        map.put("W3CDTF/dcterms:modified", new EasModiefiedHandler());
-        map.put("/dcterms:modified", new TermsModiefiedHandler());
+        map.put("W3CDTF/dcterms:modified", pool -> new EasModiefiedHandler());
+        map.put("/dcterms:modified", pool -> new TermsModiefiedHandler());
 
-        map.put("W3CDTF/dcterms:dateAccepted", new EasDateAccepteddHandler());
-        map.put("/dcterms:dateAccepted", new TermsDateAccepteddHandler());
+        map.put("W3CDTF/dcterms:dateAccepted", pool -> new EasDateAccepteddHandler());
+        map.put("/dcterms:dateAccepted", pool -> new TermsDateAccepteddHandler());
 
-        map.put("W3CDTF/dcterms:dateCopyrighted", new EasDateCopyrightedHandler());
-        map.put("/dcterms:dateCopyrighted", new TermsDateCopyrightedHandler());
+        map.put("W3CDTF/dcterms:dateCopyrighted", pool -> new EasDateCopyrightedHandler());
+        map.put("/dcterms:dateCopyrighted", pool -> new TermsDateCopyrightedHandler());
 
-        map.put("W3CDTF/dcterms:dateSubmitted", new EasDateSubmittedHandler());
-        map.put("/dcterms:dateSubmitted", new TermsDateSubmittedHandler());
+        map.put("W3CDTF/dcterms:dateSubmitted", pool -> new EasDateSubmittedHandler());
+        map.put("/dcterms:dateSubmitted", pool -> new TermsDateSubmittedHandler());
 
-        final BasicDateHandler dcDateHandler = new DcDateHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> dcDateHandler = pool -> new DcDateHandler();
         map.put("/dc:date", dcDateHandler);
         map.put("/dcterms:date", dcDateHandler);
-        final EasDateHandler easDateHandler = new EasDateHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> easDateHandler = pool -> new EasDateHandler();
         map.put("W3CDTF/dc:date", easDateHandler);
         map.put("W3CDTF/dcterms:date", easDateHandler);
     }
 
-    private void putHandledByChilds() {
+    private static void putHandledByChilds(final Map<String, CrosswalkHandlerFactory<EasyMetadata>> map) {
         map.put("/dcx-dai:organization", null);
         map.put("/dcx-dai:author", null);
         map.put("/ddm:dcmiMetadata", null);
@@ -366,41 +522,42 @@ public class Ddm2EmdHandlerMap implements CrosswalkHandlerMap<EasyMetadata> {
         map.put("/ddm:additional-xml", null);
     }
 
-    private void putMiscellaneousHandlers() {
+    private static void putMiscellaneousHandlers(final Map<String, CrosswalkHandlerFactory<EasyMetadata>> map) {
         // 3-fold checks: maxDDM as generated by oXygen / EasyMetadataImpl fields / deposit pages
         // <ref-panelId> mainly from emd-view-definition in archaeology.xml and unspecified.xml
 
-        map.put("/ddm:accessRights", new AccessRightsHandler());
+        map.put("/ddm:accessRights", pool -> new AccessRightsHandler());
+        final CrosswalkHandlerFactory<EasyMetadata> notYetImplemented = pool -> new SkippedFieldHandler("not yet configured/implemented");
         // TODO additional access rights not yet implemented
-        map.put("/dcterms:accessRights", NOT_YET_IMPLEMENTED);
-        map.put("/dc:rights", NOT_YET_IMPLEMENTED);
-        map.put("/dcterms:rights", NOT_YET_IMPLEMENTED);
-        map.put("URI/dcterms:license", new TermsLicenseHandler());
+        map.put("/dcterms:accessRights", notYetImplemented);
+        map.put("/dc:rights", notYetImplemented);
+        map.put("/dcterms:rights", notYetImplemented);
+        map.put("URI/dcterms:license", pool -> new TermsLicenseHandler());
         // <ref-panelId>dc.rights</ref-panelId>
         // <ref-panelId>dcterms.accessrights</ref-panelId>
         // EasyMetadataImpl: EmdRights emdRights;
 
         // life science / archaeology
-        final BasicStringHandler dcPublisherHandler = new DcPublisherHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> dcPublisherHandler = pool -> new DcPublisherHandler();
         map.put("/dc:publisher", dcPublisherHandler);
         map.put("/dcterms:publisher", dcPublisherHandler);
         // EasyMetadataImpl: EmdPublisher emdPublisher;
 
-        final BasicStringHandler titleHandler = new TitleHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> titleHandler = pool -> new TitleHandler();
         map.put("/dc:title", titleHandler);
         map.put("/dcterms:title", titleHandler);
         // EasyMetadataImpl: EmdTitle emdTitle;
-        map.put("/dcterms:alternative", new AlternativeTitleHandler());
+        map.put("/dcterms:alternative", pool -> new AlternativeTitleHandler());
         // <ref-panelId>dcterms.alternative</ref-panelId>
 
-        final BasicStringHandler descriptionHandler = new DescriptionHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> descriptionHandler = pool -> new DescriptionHandler();
         map.put("/dc:description", descriptionHandler);
         map.put("/dcterms:description", descriptionHandler);
         map.put("/ddm:description", descriptionHandler);
         // EasyMetadataImpl: EmdDescription emdDescription;
 
-        final BasicStringHandler dcFormatHandler = new DcFormatHandler(false);
-        final BasicStringHandler imtFormatHandler = new DcFormatHandler(true);
+        final CrosswalkHandlerFactory<EasyMetadata> dcFormatHandler = pool -> new DcFormatHandler(false);
+        final CrosswalkHandlerFactory<EasyMetadata> imtFormatHandler = pool -> new DcFormatHandler(true);
         map.put("/dc:format", dcFormatHandler);
         map.put("/dcterms:format", dcFormatHandler);
         map.put("IMT/dc:format", imtFormatHandler);
@@ -413,12 +570,12 @@ public class Ddm2EmdHandlerMap implements CrosswalkHandlerMap<EasyMetadata> {
         // <ref-panelId>eas.remarks</ref-panelId>
         // EasyMetadataImpl: EmdOther emdOther;
 
-        final BasicIdentifierHandler identifierHandler = new IdentifierHandler();
-        final BasicIdentifierHandler isbnIdentifierHandler = new IdentifierHandler("ISBN");
-        final BasicIdentifierHandler issnIdentifierHandler = new IdentifierHandler("ISSN");
-        final BasicIdentifierHandler nwoIdentifierHandler = new IdentifierHandler("NWO-projectnummer");
-        final BasicIdentifierHandler eDNAprojectIdentifierHandler = new IdentifierHandler("eDNA-project");
-        final BasicIdentifierHandler archisIdentifierHandler = new ArchisIdentifierHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> identifierHandler = pool -> new IdentifierHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> isbnIdentifierHandler = pool -> new IdentifierHandler("ISBN");
+        final CrosswalkHandlerFactory<EasyMetadata> issnIdentifierHandler = pool -> new IdentifierHandler("ISSN");
+        final CrosswalkHandlerFactory<EasyMetadata> nwoIdentifierHandler = pool -> new IdentifierHandler("NWO-projectnummer");
+        final CrosswalkHandlerFactory<EasyMetadata> eDNAprojectIdentifierHandler = pool -> new IdentifierHandler("eDNA-project");
+        final CrosswalkHandlerFactory<EasyMetadata> archisIdentifierHandler = pool -> new ArchisIdentifierHandler();
         map.put("/dc:identifier", identifierHandler);
         map.put("/dcterms:identifier", identifierHandler);
         map.put("ISBN/dc:identifier", isbnIdentifierHandler);
@@ -438,7 +595,7 @@ public class Ddm2EmdHandlerMap implements CrosswalkHandlerMap<EasyMetadata> {
         // BasicIdentifier bi =
         // emd.getEmdIdentifier().getAllIdentfiers(EmdConstants.SCHEME_ARCHIS_ONDERZOEK_M_NR))
 
-        final BasicStringHandler dcLanguageHandler = new DcLanguageHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> dcLanguageHandler = pool -> new DcLanguageHandler();
         map.put("/dc:language", dcLanguageHandler);
         map.put("/dcterms:language", dcLanguageHandler);
         map.put("ISO639-3/dc:language", dcLanguageHandler);
@@ -449,13 +606,13 @@ public class Ddm2EmdHandlerMap implements CrosswalkHandlerMap<EasyMetadata> {
         // <ref-panelId>dc.language</ref-panelId>
         // EasyMetadataImpl: EmdLanguage emdLanguage;
 
-        final BasicIdentifierHandler dcSourceHandler = new DcSourceHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> dcSourceHandler = pool -> new DcSourceHandler();
         map.put("/dc:source", dcSourceHandler);
         map.put("/dcterms:source", dcSourceHandler);
         // <ref-panelId>dc.source</ref-panelId>
         // EasyMetadataImpl: EmdSource emdSource;
 
-        final BasicStringHandler dcTypeHandler = new DcTypeHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> dcTypeHandler = pool -> new DcTypeHandler();
         map.put("/dc:type", dcTypeHandler);
         map.put("/dcterms:type", dcTypeHandler);
         map.put("DCMIType/dc:type", dcTypeHandler);
@@ -464,29 +621,28 @@ public class Ddm2EmdHandlerMap implements CrosswalkHandlerMap<EasyMetadata> {
         // EasyMetadataImpl: EmdType emdType;
     }
 
-    private void putAboutHandlers() {
-        final BasicStringHandler dcCoverageHandler = new DcCoverageHandler();
+    private static void putAboutHandlers(final Map<String, CrosswalkHandlerFactory<EasyMetadata>> map) {
+        final CrosswalkHandlerFactory<EasyMetadata> dcCoverageHandler = pool -> new DcCoverageHandler();
         map.put("/dc:coverage", dcCoverageHandler);
         map.put("/dcterms:coverage", dcCoverageHandler);
         // EasyMetadataImpl: EmdCoverage emdCoverage;
 
-        Map<String, AbstractSpatialHandler> spatialSubHandlers = new HashMap<String, AbstractSpatialHandler>();
-
-        final SpatialPointHandler spatialPointHandler = new SpatialPointHandler();
-        spatialSubHandlers.put("Point", spatialPointHandler);
-
-        final SpatialBoxHandler spatialBoxHandler = new SpatialBoxHandler();
-        spatialSubHandlers.put("Envelope", spatialBoxHandler);
-
-        final SpatialPolygonHandler polygonHandler = new SpatialPolygonHandler();
-        spatialSubHandlers.put("Polygon", polygonHandler);
-
-        final SpatialMultiPolygonHandler multiPolygonHandler = new SpatialMultiPolygonHandler(polygonHandler);
-        spatialSubHandlers.put("MultiSurface", multiPolygonHandler);
-
-        final EasSpatialHandler easSpatialHandler = new EasSpatialHandler(spatialSubHandlers);
-        map.put("/dcterms:spatial", new TermsSpatialHandler());
-        map.put("ISO3166/dcterms:spatial", new TermsSpatialIso3166Handler());
+        final CrosswalkHandlerFactory<EasyMetadata> spatialPointHandler = pool -> new SpatialPointHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> spatialBoxHandler = pool -> new SpatialBoxHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> polygonHandler = pool -> new SpatialPolygonHandler();
+
+        // the collaborating handlers of a walk are taken from the pool of that walk
+        final CrosswalkHandlerFactory<EasyMetadata> multiPolygonHandler = pool -> new SpatialMultiPolygonHandler((SpatialPolygonHandler) pool.get(polygonHandler));
+        final CrosswalkHandlerFactory<EasyMetadata> easSpatialHandler = pool -> {
+            final Map<String, AbstractSpatialHandler> spatialSubHandlers = new HashMap<String, AbstractSpatialHandler>();
+            spatialSubHandlers.put("Point", (AbstractSpatialHandler) pool.get(spatialPointHandler));
+            spatialSubHandlers.put("Envelope", (AbstractSpatialHandler) pool.get(spatialBoxHandler));
+            spatialSubHandlers.put("Polygon", (AbstractSpatialHandler) pool.get(polygonHandler));
+            spatialSubHandlers.put("MultiSurface", (AbstractSpatialHandler) pool.get(multiPolygonHandler));
+            return new EasSpatialHandler(spatialSubHandlers);
+        };
+        map.put("/dcterms:spatial", pool -> new TermsSpatialHandler());
+        map.put("ISO3166/dcterms:spatial", pool -> new TermsSpatialIso3166Handler());
         map.put("/dcx-gml:spatial", easSpatialHandler);
         map.put("SimpleGMLType/dcterms:spatial", easSpatialHandler);
         map.put("/gml:Point", spatialPointHandler);
@@ -498,16 +654,16 @@ public class Ddm2EmdHandlerMap implements CrosswalkHandlerMap<EasyMetadata> {
         // <ref-panelId>eas.spatial.box</ref-panelId>
         // getEmdCoverage().get...
 
-        final TermsTemporalHandler temporalHandler = new TermsTemporalHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> temporalHandler = pool -> new TermsTemporalHandler();
         map.put("/dcterms:temporal", temporalHandler);
         map.put("/ddm:temporal", temporalHandler);
-        map.put("ABRperiode/dcterms:temporal", new TermsTemporalHandler(NameSpace.ABR));
+        map.put("ABRperiode/dcterms:temporal", pool -> new TermsTemporalHandler(NameSpace.ABR));
         // <ref-panelId>dcterms.temporal</ref-panelId>
         // <ref-panelId>dcterms.temporal.abr</ref-panelId>
         // getEmdCoverage().get...
 
-        final BasicStringHandler subjectHandler = new SubjectHandler();
-        final BasicStringHandler abrSubjectHandler = new SubjectHandler(NameSpace.ABR);
+        final CrosswalkHandlerFactory<EasyMetadata> subjectHandler = pool -> new SubjectHandler();
+        final CrosswalkHandlerFactory<EasyMetadata> abrSubjectHandler = pool -> new SubjectHandler(NameSpace.ABR);
         map.put("/dc:subject", subjectHandler);
         map.put("/dcterms:subject", subjectHandler);
         map.put("/ddm:subject", subjectHandler);
@@ -516,15 +672,4 @@ public class Ddm2EmdHandlerMap implements CrosswalkHandlerMap<EasyMetadata> {
         // <ref-panelId>dc.subject.abr</ref-panelId>
         // EasyMetadataImpl: EmdSubject emdSubject;
     }
-
-    private String toLocalName(final String value) {
-        final String localName;
-        if (value == null)
-            localName = "";
-        else if (value.contains(":"))
-            localName = value.split(":")[1];
-        else
-            localName = value;
-        return localName;
-    }
 }
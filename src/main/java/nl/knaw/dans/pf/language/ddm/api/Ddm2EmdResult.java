@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import nl.knaw.dans.pf.language.emd.EasyMetadata;
+import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkException;
+import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler;
+
+/**
+ * The outcome of the crosswalk of one document of a batch, see {@link Ddm2EmdCrosswalk#createFromPaths(Iterable, java.util.concurrent.ExecutorService)}.
+ */
+public class Ddm2EmdResult {
+    private final Path path;
+    private final EasyMetadata emd;
+    private final XMLErrorHandler errorHandler;
+    private final CrosswalkException exception;
+
+    Ddm2EmdResult(final Path path, final EasyMetadata emd, final XMLErrorHandler errorHandler, final CrosswalkException exception) {
+        this.path = path;
+        this.emd = emd;
+        this.errorHandler = errorHandler;
+        this.exception = exception;
+    }
+
+    /** @return the input document */
+    public Path getPath() {
+        return path;
+    }
+
+    /** @return the input document */
+    public File getFile() {
+        return path.toFile();
+    }
+
+    /** @return null if errors are reported by the {@link XMLErrorHandler} or the crosswalk failed with an exception */
+    public EasyMetadata getEmd() {
+        return emd;
+    }
+
+    /** @return the notifications for this document only */
+    public XMLErrorHandler getXmlErrorHandler() {
+        return errorHandler;
+    }
+
+    /** @return null unless the crosswalk failed with an exception */
+    public CrosswalkException getException() {
+        return exception;
+    }
+
+    /** @return true if the crosswalk produced Easy Meta Data */
+    public boolean passed() {
+        return emd != null;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import java.nio.ByteBuffer;
+
+import nl.knaw.dans.pf.language.emd.EasyMetadata;
+import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkException;
+import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkSession;
+import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler;
+
+/**
+ * A crosswalk of Dans Dataset Metadata that is fed with chunks of bytes as they arrive, for example from an asynchronous upload. No call waits for input, so
+ * a few threads can serve many concurrent uploads. See {@link Ddm2EmdCrosswalk#newSession()} and {@link CrosswalkSession} for the threading rules.
+ */
+public class Ddm2EmdSession {
+    private final Ddm2EmdCrosswalk crosswalk;
+    private final CrosswalkSession<EasyMetadata> session;
+
+    Ddm2EmdSession(final Ddm2EmdCrosswalk crosswalk, final CrosswalkSession<EasyMetadata> session) {
+        this.crosswalk = crosswalk;
+        this.session = session;
+    }
+
+    /**
+     * Processes the next chunk of the document.
+     * 
+     * @see CrosswalkSession#feed(byte[], int, int)
+     */
+    public void feed(final byte[] bytes, final int offset, final int length) throws CrosswalkException, IllegalStateException {
+        session.feed(bytes, offset, length);
+    }
+
+    /**
+     * Processes the remaining bytes of the buffer as the next chunk of the document.
+     * 
+     * @see CrosswalkSession#feed(ByteBuffer)
+     */
+    public void feed(final ByteBuffer bytes) throws CrosswalkException, IllegalStateException {
+        session.feed(bytes);
+    }
+
+    /**
+     * Ends the input and closes the session.
+     * 
+     * @return null if errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     *         if the document is not well formed or incomplete
+     * @throws IllegalStateException
+     *         if the session is closed
+     */
+    public EasyMetadata end() throws CrosswalkException, IllegalStateException {
+        return crosswalk.validateEMD(session.end(), session.getXmlErrorHandler());
+    }
+
+    /** @return true if the session ended or failed */
+    public boolean isClosed() {
+        return session.isClosed();
+    }
+
+    /** @return the notifications of this session */
+    public XMLErrorHandler getXmlErrorHandler() {
+        return session.getXmlErrorHandler();
+    }
+}
@@ -0,0 +1,526 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import static nl.knaw.dans.pf.language.ddm.handlermaps.NameSpace.ABR;
+import static nl.knaw.dans.pf.language.ddm.handlermaps.NameSpace.DC;
+import static nl.knaw.dans.pf.language.ddm.handlermaps.NameSpace.DCX_DAI;
+import static nl.knaw.dans.pf.language.ddm.handlermaps.NameSpace.DCX_GML;
+import static nl.knaw.dans.pf.language.ddm.handlermaps.NameSpace.DC_TERMS;
+import static nl.knaw.dans.pf.language.ddm.handlermaps.NameSpace.DDM;
+import static nl.knaw.dans.pf.language.ddm.handlermaps.NameSpace.GML;
+import static nl.knaw.dans.pf.language.ddm.handlermaps.NameSpace.IDENTIFIER_TYPE;
+import static nl.knaw.dans.pf.language.ddm.handlermaps.NameSpace.XSI;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import nl.knaw.dans.pf.language.ddm.handlermaps.NameSpace;
+import nl.knaw.dans.pf.language.ddm.handlers.spatial.AbstractSpatialHandler;
+import nl.knaw.dans.pf.language.emd.EasyMetadata;
+import nl.knaw.dans.pf.language.emd.types.Author;
+import nl.knaw.dans.pf.language.emd.types.BasicDate;
+import nl.knaw.dans.pf.language.emd.types.BasicIdentifier;
+import nl.knaw.dans.pf.language.emd.types.BasicString;
+import nl.knaw.dans.pf.language.emd.types.EmdConstants;
+import nl.knaw.dans.pf.language.emd.types.IsoDate;
+import nl.knaw.dans.pf.language.emd.types.Polygon;
+import nl.knaw.dans.pf.language.emd.types.PolygonPart;
+import nl.knaw.dans.pf.language.emd.types.PolygonPoint;
+import nl.knaw.dans.pf.language.emd.types.Relation;
+import nl.knaw.dans.pf.language.emd.types.Spatial;
+import nl.knaw.dans.pf.language.emd.types.Spatial.Box;
+import nl.knaw.dans.pf.language.emd.types.Spatial.Point;
+import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkException;
+import nl.knaw.dans.pf.language.xml.crosswalk.JdkStax;
+import nl.knaw.dans.pf.language.xml.vocabulary.VocabularySnapshot;
+
+import org.dom4j.DocumentException;
+
+/**
+ * Writes Dans Dataset Metadata from Easy Meta Data, the reverse of {@link Ddm2EmdCrosswalk}. The elements are written while the Easy Meta Data is
+ * visited, so the output is never held as a whole. Crosswalking the output again results in the same Easy Meta Data, except for what the
+ * {@link Ddm2EmdCrosswalk} doesn't keep: the identifier of a funder, the place of a box and spatial coordinates in an unknown reference system. An
+ * instance may be shared by multiple threads.
+ */
+public class Emd2DdmCrosswalk {
+    /** the writer of the JDK, not one that happens to be on the class path */
+    private static final XMLOutputFactory FACTORY = JdkStax.newOutputFactory();
+
+    /** the schemes of identifiers that are written as xsi:type */
+    private static final Set<String> ID_TYPES = new HashSet<String>(Arrays.asList("ISBN", "ISSN", "NWO-PROJECTNR", "ARCHIS-ZAAK-IDENTIFICATIE",
+            "eDNA-project"));
+    /** the schemes of relations that are written as xsi:type */
+    private static final Set<String> RELATION_TYPES = new HashSet<String>(Arrays.asList("ISBN", "ISSN", "NWO-PROJECTNR"));
+    private static final Map<String, String> IDENTIFIER_SCHEMES = new HashMap<String, String>();
+    static {
+        IDENTIFIER_SCHEMES.put("NWO-projectnummer", "NWO-PROJECTNR");
+        IDENTIFIER_SCHEMES.put("Archis_onderzoek_m_nr", "ARCHIS-ZAAK-IDENTIFICATIE");
+    }
+
+    private static final Map<String, String> LANGUAGES = new HashMap<String, String>();
+    static {
+        LANGUAGES.put("dut/nld", "nld");
+        LANGUAGES.put("ger/deu", "deu");
+        LANGUAGES.put("fre/fra", "fra");
+        LANGUAGES.put("eng", "eng");
+    }
+
+    /** appinfo to enumeration of the narcis disciplines, loaded on first demand */
+    private static volatile Map<String, String> disciplines;
+
+    /**
+     * Writes the DDM of the Easy Meta Data as UTF-8.
+     * 
+     * @param emd
+     *        the Easy Meta Data to convert
+     * @param out
+     *        receives the DDM, not closed
+     * @throws CrosswalkException
+     *         if the output can't be written, the vocabulary of disciplines can't be loaded, a discipline is not in that vocabulary or an element
+     *         required in the profile is missing
+     */
+    public void write(final EasyMetadata emd, final OutputStream out) throws CrosswalkException {
+        final Map<String, String> appInfo2discipline = getDisciplines();
+        try {
+            final XMLStreamWriter w = FACTORY.createXMLStreamWriter(out, "UTF-8");
+            try {
+                w.writeStartDocument("UTF-8", "1.0");
+                w.writeStartElement(DDM.prefix, "DDM", DDM.uri);
+                for (final NameSpace ns : NameSpace.values())
+                    w.writeNamespace(ns.prefix, ns.uri);
+                w.writeAttribute(XSI.prefix, XSI.uri, "schemaLocation", DDM.uri + " " + DDM.xsd);
+                writeProfile(w, emd, appInfo2discipline);
+                writeDcmiMetadata(w, emd);
+                w.writeEndElement();
+                w.writeEndDocument();
+                w.flush();
+            }
+            finally {
+                w.close();
+            }
+        }
+        catch (final XMLStreamException e) {
+            throw new CrosswalkException("could not write DDM: " + e.getMessage(), e);
+        }
+    }
+
+    /** lazy initialization, once for all instances */
+    private static Map<String, String> getDisciplines() throws CrosswalkException {
+        Map<String, String> result = disciplines;
+        if (result == null) {
+            try {
+                result = disciplines = VocabularySnapshot.load(NameSpace.NARCIS_TYPE.xsd).getAppInfo2enum();
+            }
+            catch (final DocumentException e) {
+                throw new CrosswalkException("could not load map [" + NameSpace.NARCIS_TYPE.xsd + "] " + e.getMessage(), e);
+            }
+        }
+        return result;
+    }
+
+    private static void writeProfile(final XMLStreamWriter w, final EasyMetadata emd, final Map<String, String> appInfo2discipline)
+            throws XMLStreamException, CrosswalkException {
+        // like the disciplines, the elements required by the schema are checked
+        w.writeStartElement(DDM.prefix, "profile", DDM.uri);
+        writeString(w, DC, "title", null, first(emd.getEmdTitle().getDcTitle(), "dc:title"));
+        for (final BasicString description : emd.getEmdDescription().getDcDescription())
+            writeString(w, DDM, "description", null, description);
+        if (emd.getEmdCreator().getDcCreator().isEmpty() && emd.getEmdCreator().getEasCreator().isEmpty())
+            throw missing("dc:creator or dcx-dai:creatorDetails");
+        for (final BasicString creator : emd.getEmdCreator().getDcCreator())
+            writeString(w, DC, "creator", null, creator);
+        for (final Author creator : emd.getEmdCreator().getEasCreator())
+            writeAuthor(w, "creatorDetails", creator);
+        writeIsoDate(w, DDM, "created", null, first(emd.getEmdDate().getEasCreated(), "ddm:created"));
+        final List<IsoDate> available = emd.getEmdDate().getEasAvailable();
+        if (!available.isEmpty())
+            writeIsoDate(w, DDM, "available", null, available.get(0));
+        for (final BasicString audience : emd.getEmdAudience().getTermsAudience()) {
+            if (!EmdConstants.SCHEME_ID_DISCIPLINES.equals(audience.getSchemeId()))
+                continue;
+            // the schema requires a value of the vocabulary
+            final String discipline = appInfo2discipline.get(audience.getValue());
+            if (discipline == null)
+                throw new CrosswalkException("no narcis discipline for audience [" + audience.getValue() + "]", null);
+            writeText(w, DDM, "audience", null, null, discipline);
+        }
+        writeString(w, DDM, "accessRights", null, first(emd.getEmdRights().getTermsAccessRights(), "ddm:accessRights"));
+        w.writeEndElement();
+    }
+
+    /** @return the value of a required element of the profile */
+    private static <E> E first(final List<E> values, final String element) throws CrosswalkException {
+        if (values.isEmpty())
+            throw missing(element);
+        return values.get(0);
+    }
+
+    private static CrosswalkException missing(final String element) {
+        return new CrosswalkException("no " + element + " for the DDM profile", null);
+    }
+
+    private static void writeDcmiMetadata(final XMLStreamWriter w, final EasyMetadata emd) throws XMLStreamException {
+        w.writeStartElement(DDM.prefix, "dcmiMetadata", DDM.uri);
+
+        final List<BasicString> titles = emd.getEmdTitle().getDcTitle();
+        for (int i = 1; i < titles.size(); i++)
+            writeString(w, DC_TERMS, "title", null, titles.get(i));
+        for (final BasicString alternative : emd.getEmdTitle().getTermsAlternative())
+            writeString(w, DC_TERMS, "alternative", null, alternative);
+
+        for (final BasicString contributor : emd.getEmdContributor().getDcContributor())
+            writeString(w, DC, "contributor", null, contributor);
+        for (final Author contributor : emd.getEmdContributor().getEasContributor()) {
+            if (isFunder(contributor))
+                writeFunding(w, contributor);
+            else
+                writeAuthor(w, "contributorDetails", contributor);
+        }
+        for (final BasicString publisher : emd.getEmdPublisher().getDcPublisher())
+            writeString(w, DC, "publisher", null, publisher);
+        for (final BasicString source : emd.getEmdSource().getDcSource())
+            writeString(w, DC, "source", null, source);
+
+        for (final BasicString type : emd.getEmdType().getDcType())
+            writeString(w, DC_TERMS, "type", "DCMI".equals(type.getScheme()) ? "dcterms:DCMIType" : null, type);
+        for (final BasicString format : emd.getEmdFormat().getDcFormat())
+            writeString(w, DC_TERMS, "format", "IMT".equals(format.getScheme()) ? "dcterms:IMT" : null, format);
+        for (final BasicIdentifier identifier : emd.getEmdIdentifier().getDcIdentifier())
+            writeIdentifier(w, DC_TERMS, "identifier", identifierType(identifier.getScheme()), identifier);
+        for (final BasicString language : emd.getEmdLanguage().getDcLanguage()) {
+            final String code = LANGUAGES.get(language.getValue());
+            if (code == null)
+                writeString(w, DC_TERMS, "language", null, language);
+            else
+                writeText(w, DC_TERMS, "language", "dcterms:ISO639-2", language.getLanguage(), code);
+        }
+
+        writeDates(w, emd);
+        writeRelations(w, emd);
+        writeCoverage(w, emd);
+
+        for (final BasicString subject : emd.getEmdSubject().getDcSubject())
+            writeString(w, DC, "subject", isAbr(subject) ? "abr:ABRcomplex" : null, subject);
+        for (final BasicString audience : emd.getEmdAudience().getTermsAudience()) {
+            if (!EmdConstants.SCHEME_ID_DISCIPLINES.equals(audience.getSchemeId()))
+                writeString(w, DC_TERMS, "audience", null, audience);
+        }
+        for (final BasicString rightsHolder : emd.getEmdRights().getTermsRightsHolder())
+            writeString(w, DC_TERMS, "rightsHolder", null, rightsHolder);
+        for (final BasicString license : emd.getEmdRights().getTermsLicense())
+            writeString(w, DC_TERMS, "license", "dcterms:URI", license);
+
+        w.writeEndElement();
+    }
+
+    private static void writeDates(final XMLStreamWriter w, final EasyMetadata emd) throws XMLStreamException {
+        // the first created and available are written in the profile
+        final List<IsoDate> created = emd.getEmdDate().getEasCreated();
+        for (int i = 1; i < created.size(); i++)
+            writeIsoDate(w, DC_TERMS, "created", "dcterms:W3CDTF", created.get(i));
+        final List<IsoDate> available = emd.getEmdDate().getEasAvailable();
+        for (int i = 1; i < available.size(); i++)
+            writeIsoDate(w, DC_TERMS, "available", "dcterms:W3CDTF", available.get(i));
+        writeIsoDates(w, "valid", emd.getEmdDate().getEasValid());
+        writeIsoDates(w, "issued", emd.getEmdDate().getEasIssued());
+        writeIsoDates(w, "modified", emd.getEmdDate().getEasModified());
+        writeIsoDates(w, "dateAccepted", emd.getEmdDate().getEasDateAccepted());
+        writeIsoDates(w, "dateCopyrighted", emd.getEmdDate().getEasDateCopyrighted());
+        writeIsoDates(w, "dateSubmitted", emd.getEmdDate().getEasDateSubmitted());
+        writeIsoDates(w, "date", emd.getEmdDate().getEasDate());
+
+        writeBasicDates(w, DC_TERMS, "created", emd.getEmdDate().getTermsCreated());
+        writeBasicDates(w, DC_TERMS, "available", emd.getEmdDate().getTermsAvailable());
+        writeBasicDates(w, DC_TERMS, "valid", emd.getEmdDate().getTermsValid());
+        writeBasicDates(w, DC_TERMS, "issued", emd.getEmdDate().getTermsIssued());
+        writeBasicDates(w, DC_TERMS, "modified", emd.getEmdDate().getTermsModified());
+        writeBasicDates(w, DC_TERMS, "dateAccepted", emd.getEmdDate().getTermsDateAccepted());
+        writeBasicDates(w, DC_TERMS, "dateCopyrighted", emd.getEmdDate().getTermsDateCopyrighted());
+        writeBasicDates(w, DC_TERMS, "dateSubmitted", emd.getEmdDate().getTermsDateSubmitted());
+        writeBasicDates(w, DC, "date", emd.getEmdDate().getDcDate());
+    }
+
+    private static void writeRelations(final XMLStreamWriter w, final EasyMetadata emd) throws XMLStreamException {
+        for (final BasicString relation : emd.getEmdRelation().getDcRelation()) {
+            final String scheme = relation.getScheme();
+            if (scheme == null || RELATION_TYPES.contains(scheme))
+                writeString(w, DC_TERMS, "relation", relationType(scheme), relation);
+            else
+                writeRelation(w, "relation", scheme, null, relation);
+        }
+        writeIdentifiers(w, "conformsTo", emd.getEmdRelation().getTermsConformsTo());
+        writeIdentifiers(w, "isVersionOf", emd.getEmdRelation().getTermsIsVersionOf());
+        writeIdentifiers(w, "hasVersion", emd.getEmdRelation().getTermsHasVersion());
+        writeIdentifiers(w, "isReplacedBy", emd.getEmdRelation().getTermsIsReplacedBy());
+        writeIdentifiers(w, "replaces", emd.getEmdRelation().getTermsReplaces());
+        writeIdentifiers(w, "isRequiredBy", emd.getEmdRelation().getTermsIsRequiredBy());
+        writeIdentifiers(w, "requires", emd.getEmdRelation().getTermsRequires());
+        writeIdentifiers(w, "isPartOf", emd.getEmdRelation().getTermsIsPartOf());
+        writeIdentifiers(w, "hasPart", emd.getEmdRelation().getTermsHasPart());
+        writeIdentifiers(w, "isReferencedBy", emd.getEmdRelation().getTermsIsReferencedBy());
+        writeIdentifiers(w, "references", emd.getEmdRelation().getTermsReferences());
+        writeIdentifiers(w, "isFormatOf", emd.getEmdRelation().getTermsIsFormatOf());
+        writeIdentifiers(w, "hasFormat", emd.getEmdRelation().getTermsHasFormat());
+
+        writeRelations(w, "relation", emd.getEmdRelation().getEasRelation());
+        writeRelations(w, "conformsTo", emd.getEmdRelation().getEasConformsTo());
+        writeRelations(w, "isVersionOf", emd.getEmdRelation().getEasIsVersionOf());
+        writeRelations(w, "hasVersion", emd.getEmdRelation().getEasHasVersion());
+        writeRelations(w, "isReplacedBy", emd.getEmdRelation().getEasIsReplacedBy());
+        writeRelations(w, "replaces", emd.getEmdRelation().getEasReplaces());
+        writeRelations(w, "isRequiredBy", emd.getEmdRelation().getEasIsRequiredBy());
+        writeRelations(w, "requires", emd.getEmdRelation().getEasRequires());
+        writeRelations(w, "isPartOf", emd.getEmdRelation().getEasIsPartOf());
+        writeRelations(w, "hasPart", emd.getEmdRelation().getEasHasPart());
+        writeRelations(w, "isReferencedBy", emd.getEmdRelation().getEasIsReferencedBy());
+        writeRelations(w, "references", emd.getEmdRelation().getEasReferences());
+        writeRelations(w, "isFormatOf", emd.getEmdRelation().getEasIsFormatOf());
+        writeRelations(w, "hasFormat", emd.getEmdRelation().getEasHasFormat());
+    }
+
+    private static void writeCoverage(final XMLStreamWriter w, final EasyMetadata emd) throws XMLStreamException {
+        for (final BasicString coverage : emd.getEmdCoverage().getDcCoverage())
+            writeString(w, DC, "coverage", null, coverage);
+        for (final BasicString spatial : emd.getEmdCoverage().getTermsSpatial())
+            writeString(w, DC_TERMS, "spatial", null, spatial);
+        for (final BasicString temporal : emd.getEmdCoverage().getTermsTemporal())
+            writeString(w, DC_TERMS, "temporal", isAbr(temporal) ? "abr:ABRperiode" : null, temporal);
+        for (final Spatial spatial : emd.getEmdCoverage().getEasSpatial())
+            writeSpatial(w, spatial);
+    }
+
+    private static boolean isAbr(final BasicString value) {
+        return ABR.prefix.toUpperCase().equals(value.getScheme());
+    }
+
+    private static String identifierType(final String scheme) {
+        if (scheme == null)
+            return null;
+        final String type = IDENTIFIER_SCHEMES.containsKey(scheme) ? IDENTIFIER_SCHEMES.get(scheme) : scheme;
+        return ID_TYPES.contains(type) ? IDENTIFIER_TYPE.prefix + ":" + type : null;
+    }
+
+    private static String relationType(final String scheme) {
+        return RELATION_TYPES.contains(scheme) ? IDENTIFIER_TYPE.prefix + ":" + scheme : null;
+    }
+
+    private static boolean isFunder(final Author author) {
+        final Author.Role role = author.getRole();
+        return role != null && "Funder".equals(role.getRole()) && "EASY".equals(role.getScheme());
+    }
+
+    private static void writeFunding(final XMLStreamWriter w, final Author funder) throws XMLStreamException {
+        w.writeStartElement(DDM.prefix, "funding", DDM.uri);
+        writeText(w, DDM, "funderName", null, null, funder.getOrganization());
+        w.writeEndElement();
+    }
+
+    private static void writeAuthor(final XMLStreamWriter w, final String localName, final Author author) throws XMLStreamException {
+        w.writeStartElement(DCX_DAI.prefix, localName, DCX_DAI.uri);
+        w.writeStartElement(DCX_DAI.prefix, "author", DCX_DAI.uri);
+        writeText(w, DCX_DAI, "titles", null, null, author.getTitle());
+        writeText(w, DCX_DAI, "initials", null, null, author.getInitials());
+        writeText(w, DCX_DAI, "insertions", null, null, author.getPrefix());
+        writeText(w, DCX_DAI, "surname", null, null, author.getSurname());
+        if (author.getEntityId() != null) {
+            // the identification system tells DAI, ISNI and ORCID apart
+            final URI system = author.getIdentificationSystem();
+            final String prefix = system == null ? "" : system.toString();
+            final String element = prefix.contains("isni") ? "ISNI" : prefix.contains("orcid") ? "ORCID" : "DAI";
+            writeText(w, DCX_DAI, element, null, null, prefix + author.getEntityId());
+        }
+        if (author.getRole() != null)
+            writeText(w, DCX_DAI, "role", null, null, author.getRole().getRole());
+        if (author.getOrganization() != null) {
+            w.writeStartElement(DCX_DAI.prefix, "organization", DCX_DAI.uri);
+            writeText(w, DCX_DAI, "name", null, null, author.getOrganization());
+            w.writeEndElement();
+        }
+        w.writeEndElement();
+        w.writeEndElement();
+    }
+
+    private static void writeSpatial(final XMLStreamWriter w, final Spatial spatial) throws XMLStreamException {
+        final String place = spatial.getPlace() == null ? null : spatial.getPlace().getValue();
+        final List<Polygon> polygons = spatial.getPolygons();
+        w.writeStartElement(DCX_GML.prefix, "spatial", DCX_GML.uri);
+        if (spatial.getPoint() != null) {
+            final Point point = spatial.getPoint();
+            w.writeStartElement(GML.prefix, "Point", GML.uri);
+            writeSrsName(w, point.getScheme());
+            writeText(w, GML, "description", null, null, place);
+            // RD is east north = x y, otherwise latitude longitude = y x
+            writeText(w, GML, "pos", null, null, isRD(point.getScheme()) ? point.getX() + " " + point.getY() : point.getY() + " " + point.getX());
+            w.writeEndElement();
+        }
+        else if (spatial.getBox() != null) {
+            // the place of a box is not kept by the Ddm2EmdCrosswalk
+            final Box box = spatial.getBox();
+            final boolean rd = isRD(box.getScheme());
+            w.writeStartElement(GML.prefix, "boundedBy", GML.uri);
+            w.writeStartElement(GML.prefix, "Envelope", GML.uri);
+            writeSrsName(w, box.getScheme());
+            writeText(w, GML, "lowerCorner", null, null, rd ? box.getWest() + " " + box.getSouth() : box.getSouth() + " " + box.getWest());
+            writeText(w, GML, "upperCorner", null, null, rd ? box.getEast() + " " + box.getNorth() : box.getNorth() + " " + box.getEast());
+            w.writeEndElement();
+            w.writeEndElement();
+        }
+        else if (place == null && polygons != null && polygons.size() == 1)
+            writePolygon(w, polygons.get(0));
+        else {
+            w.writeStartElement(GML.prefix, "MultiSurface", GML.uri);
+            writeText(w, GML, "name", null, null, place);
+            if (polygons != null) {
+                for (final Polygon polygon : polygons) {
+                    w.writeStartElement(GML.prefix, "surfaceMember", GML.uri);
+                    writePolygon(w, polygon);
+                    w.writeEndElement();
+                }
+            }
+            w.writeEndElement();
+        }
+        w.writeEndElement();
+    }
+
+    private static void writePolygon(final XMLStreamWriter w, final Polygon polygon) throws XMLStreamException {
+        final boolean rd = isRD(polygon.getScheme());
+        w.writeStartElement(GML.prefix, "Polygon", GML.uri);
+        writeSrsName(w, polygon.getScheme());
+        writeText(w, GML, "description", null, null, polygon.getPlace());
+        if (polygon.getExterior() != null)
+            writeRing(w, "exterior", polygon.getExterior(), rd);
+        for (final PolygonPart interior : polygon.getInterior())
+            writeRing(w, "interior", interior, rd);
+        w.writeEndElement();
+    }
+
+    private static void writeRing(final XMLStreamWriter w, final String localName, final PolygonPart part, final boolean rd) throws XMLStreamException {
+        w.writeStartElement(GML.prefix, localName, GML.uri);
+        w.writeStartElement(GML.prefix, "LinearRing", GML.uri);
+        writeText(w, GML, "description", null, null, part.getPlace());
+        w.writeStartElement(GML.prefix, "posList", GML.uri);
+        // one point at a time, a large list is never held as a whole
+        String separator = "";
+        for (final PolygonPoint point : part.getPoints()) {
+            w.writeCharacters(separator);
+            // RD is read as north east = y x, otherwise as x y
+            w.writeCharacters(rd ? point.getY() + " " + point.getX() : point.getX() + " " + point.getY());
+            separator = " ";
+        }
+        w.writeEndElement();
+        w.writeEndElement();
+        w.writeEndElement();
+    }
+
+    private static boolean isRD(final String easScheme) {
+        return AbstractSpatialHandler.EAS_SPATIAL_SCHEME_RD.equals(easScheme);
+    }
+
+    private static void writeSrsName(final XMLStreamWriter w, final String easScheme) throws XMLStreamException {
+        if (isRD(easScheme))
+            w.writeAttribute("srsName", AbstractSpatialHandler.EPSG_URL_RD);
+        else if (AbstractSpatialHandler.EAS_SPATIAL_SCHEME_WGS84.equals(easScheme))
+            w.writeAttribute("srsName", AbstractSpatialHandler.EPSG_URL_WGS84);
+    }
+
+    private static void writeIsoDates(final XMLStreamWriter w, final String localName, final List<IsoDate> dates) throws XMLStreamException {
+        for (final IsoDate date : dates)
+            writeIsoDate(w, DC_TERMS, localName, "dcterms:W3CDTF", date);
+    }
+
+    private static void writeIsoDate(final XMLStreamWriter w, final NameSpace ns, final String localName, final String type, final IsoDate date)
+            throws XMLStreamException {
+        if (date != null && date.getValue() != null)
+            writeText(w, ns, localName, type, null, date.toString());
+    }
+
+    private static void writeBasicDates(final XMLStreamWriter w, final NameSpace ns, final String localName, final List<BasicDate> dates)
+            throws XMLStreamException {
+        for (final BasicDate date : dates)
+            writeText(w, ns, localName, null, null, date.getValue());
+    }
+
+    private static void writeIdentifiers(final XMLStreamWriter w, final String localName, final List<BasicIdentifier> identifiers)
+            throws XMLStreamException {
+        for (final BasicIdentifier identifier : identifiers)
+            writeIdentifier(w, DC_TERMS, localName, relationType(identifier.getScheme()), identifier);
+    }
+
+    private static void writeIdentifier(final XMLStreamWriter w, final NameSpace ns, final String localName, final String type,
+            final BasicIdentifier identifier) throws XMLStreamException {
+        writeText(w, ns, localName, type, null, identifier.getValue());
+    }
+
+    private static void writeRelations(final XMLStreamWriter w, final String localName, final List<Relation> relations) throws XMLStreamException {
+        for (final Relation relation : relations) {
+            final URI link = relation.getSubjectLink();
+            writeRelation(w, localName, null, link == null ? null : link.toString(), relation.getSubjectTitle());
+        }
+    }
+
+    private static void writeRelation(final XMLStreamWriter w, final String localName, final String scheme, final String href, final BasicString title)
+            throws XMLStreamException {
+        final String text = title == null ? null : title.getValue();
+        if (href == null && isBlank(text))
+            return;
+        w.writeStartElement(DDM.prefix, localName, DDM.uri);
+        if (scheme != null)
+            w.writeAttribute("scheme", scheme);
+        if (href != null)
+            w.writeAttribute("href", href);
+        if (title != null && title.getLanguage() != null)
+            w.writeAttribute("xml", XMLConstants.XML_NS_URI, "lang", title.getLanguage());
+        if (text != null)
+            w.writeCharacters(text);
+        w.writeEndElement();
+    }
+
+    private static void writeString(final XMLStreamWriter w, final NameSpace ns, final String localName, final String type, final BasicString value)
+            throws XMLStreamException {
+        if (value != null)
+            writeText(w, ns, localName, type, value.getLanguage(), value.getValue());
+    }
+
+    /** Writes nothing for a blank text, the {@link Ddm2EmdCrosswalk} ignores empty elements. */
+    private static void writeText(final XMLStreamWriter w, final NameSpace ns, final String localName, final String type, final String language,
+            final String text) throws XMLStreamException {
+        if (isBlank(text))
+            return;
+        w.writeStartElement(ns.prefix, localName, ns.uri);
+        if (type != null)
+            w.writeAttribute(XSI.prefix, XSI.uri, "type", type);
+        if (language != null)
+            w.writeAttribute("xml", XMLConstants.XML_NS_URI, "lang", language);
+        w.writeCharacters(text);
+        w.writeEndElement();
+    }
+
+    private static boolean isBlank(final String text) {
+        return text == null || text.trim().isEmpty();
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+/**
+ * How {@link Ddm2EmdCrosswalk} checks that the resulting Easy Meta Data can be serialized, incomplete fields may cause trouble.
+ */
+public enum EmdCheck {
+    /** No check, for callers that marshal the result themselves anyway. */
+    OFF,
+    /** Marshals to a stream that discards the output. */
+    STREAMING,
+    /** Marshals to a string, which is logged at debug level. */
+    FULL
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The sections of Easy Meta Data, as filled by the DDM elements with the listed local names. See {@link Ddm2EmdCrosswalk#setProjection(java.util.Set)}.
+ */
+public enum EmdSection {
+    TITLE("title", "alternative"), //
+    CREATOR("creator", "creatorDetails"), //
+    SUBJECT("subject"), //
+    DESCRIPTION("description"), //
+    PUBLISHER("publisher"), //
+    CONTRIBUTOR("contributor", "contributorDetails", "funding"), //
+    DATE("date", "created", "available", "valid", "issued", "modified", "dateAccepted", "dateCopyrighted", "dateSubmitted"), //
+    TYPE("type"), //
+    FORMAT("format"), //
+    IDENTIFIER("identifier"), //
+    SOURCE("source"), //
+    LANGUAGE("language"), //
+    RELATION("relation", "conformsTo", "isVersionOf", "hasVersion", "isReplacedBy", "replaces", "isRequiredBy", "requires", "isPartOf", "hasPart",
+            "isReferencedBy", "references", "isFormatOf", "hasFormat"), //
+    COVERAGE("coverage", "spatial", "temporal", "Point", "boundedBy", "Polygon", "MultiSurface"), //
+    RIGHTS("rights", "accessRights", "rightsHolder", "license"), //
+    /**
+     * The first audience also sets the metadata format in the application specific part of the other section (see AudienceFormatMap). Without this
+     * section, that format keeps its default.
+     */
+    AUDIENCE("audience", "educationLevel");
+
+    private static final Map<String, EmdSection> BY_LOCAL_NAME = new HashMap<String, EmdSection>();
+    static {
+        for (final EmdSection section : values())
+            for (final String localName : section.localNames)
+                BY_LOCAL_NAME.put(localName, section);
+    }
+
+    private final String[] localNames;
+
+    private EmdSection(final String... localNames) {
+        this.localNames = localNames;
+    }
+
+    /**
+     * @param localName
+     *        of a DDM element
+     * @return null for containers and fields that are not crosswalked
+     */
+    static EmdSection of(final String localName) {
+        return BY_LOCAL_NAME.get(localName);
+    }
+}
@@ -27,10 +27,12 @@ import nl.knaw.dans.pf.language.emd.types.EmdConstants;
 public class AudienceFormatMap {
     private static Properties properties;
 
-    private static Properties getProps() throws IOException, ResourceNotFoundException {
+    /** synchronized: other threads should not see partially loaded properties */
+    private static synchronized Properties getProps() throws IOException, ResourceNotFoundException {
         if (properties == null) {
-            properties = new Properties();
-            properties.load(ResourceLocator.getInputStream("format.properties"));
+            final Properties loaded = new Properties();
+            loaded.load(ResourceLocator.getInputStream("format.properties"));
+            properties = loaded;
         }
         return properties;
     }
@@ -18,9 +18,9 @@ package nl.knaw.dans.pf.language.ddm.handlers;
 import org.xml.sax.SAXException;
 
 import nl.knaw.dans.pf.language.emd.EasyMetadata;
-import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkHandler;
+import nl.knaw.dans.pf.language.xml.crosswalk.DiscardHandler;
 
-public class SkippedFieldHandler extends CrosswalkHandler<EasyMetadata> {
+public class SkippedFieldHandler extends DiscardHandler<EasyMetadata> {
     private String warn;
 
     public SkippedFieldHandler(String string) {
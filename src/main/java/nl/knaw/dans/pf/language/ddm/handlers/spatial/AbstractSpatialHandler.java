@@ -18,7 +18,6 @@ package nl.knaw.dans.pf.language.ddm.handlers.spatial;
 import nl.knaw.dans.pf.language.ddm.handlermaps.NameSpace;
 import nl.knaw.dans.pf.language.emd.EasyMetadata;
 import nl.knaw.dans.pf.language.emd.types.Polygon;
-import nl.knaw.dans.pf.language.emd.types.PolygonPoint;
 import nl.knaw.dans.pf.language.emd.types.Spatial;
 import nl.knaw.dans.pf.language.emd.types.Spatial.Box;
 import nl.knaw.dans.pf.language.emd.types.Spatial.Point;
@@ -26,14 +25,13 @@ import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkHandler;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public abstract class AbstractSpatialHandler extends CrosswalkHandler<EasyMetadata> {
 
-    private static final String EPSG_URL_WGS84 = "http://www.opengis.net/def/crs/EPSG/0/4326";
+    public static final String EPSG_URL_WGS84 = "http://www.opengis.net/def/crs/EPSG/0/4326";
     private static final String EPSG_URN_WGS84 = "urn:ogc:def:crs:EPSG::4326";
-    private static final String EPSG_URL_RD = "http://www.opengis.net/def/crs/EPSG/0/28992";
+    public static final String EPSG_URL_RD = "http://www.opengis.net/def/crs/EPSG/0/28992";
     private static final String EPSG_URN_RD = "urn:ogc:def:crs:EPSG::28992";
     public static final String EAS_SPATIAL_SCHEME_WGS84 = "degrees";// WGS84, but in EASY we call it 'degrees'
     public static final String EAS_SPATIAL_SCHEME_RD = "RD";
@@ -47,6 +45,8 @@ public abstract class AbstractSpatialHandler extends CrosswalkHandler<EasyMetada
     // the srs is the EPSG_URL_WGS84 by default
     private String foundSRS = EPSG_URL_WGS84;
 
+    private final CoordinateScanner coordinates = new CoordinateScanner();
+
     private void checkSRS(Attributes attributes) {
         for (int i = 0; i < attributes.getLength(); i++) {
             if (attributes.getLocalName(i).equals(SRS_NAME)) {
@@ -120,22 +120,26 @@ public abstract class AbstractSpatialHandler extends CrosswalkHandler<EasyMetada
         if (type != null)
             warning("ignored: not yet implemented");
 
-        String[] coordinates = getCharsSinceStart().trim().split("\\s+");
-        if (coordinates.length < 2) {
-            error("expected at least two coordinate numbers separated with a space");
-            return null;
-        }
+        try {
+            if (coordinates.scan(getCharSequenceSinceStart()) < 2) {
+                error("expected at least two coordinate numbers separated with a space");
+                return null;
+            }
 
-        String easScheme = srsName2EasScheme(getFoundSRS());
-        if (easScheme != null && easScheme.contentEquals("RD")) {
-            // RD; coordinate order is east, north = x y
-            return new Point(easScheme, coordinates[0], coordinates[1]);
-        } else {
-            // WGS84, or at least the order is yx
-            // http://wiki.esipfed.org/index.php/CRS_Specification
-            // urn:ogc:def:crs:EPSG::4326 has coordinate order latitude(north), longitude(east) = y x
-            // we make this the default order
-            return new Point(easScheme, coordinates[1], coordinates[0]);
+            String easScheme = srsName2EasScheme(getFoundSRS());
+            if (easScheme != null && easScheme.contentEquals("RD")) {
+                // RD; coordinate order is east, north = x y
+                return new Point(easScheme, coordinates.get(0), coordinates.get(1));
+            } else {
+                // WGS84, or at least the order is yx
+                // http://wiki.esipfed.org/index.php/CRS_Specification
+                // urn:ogc:def:crs:EPSG::4326 has coordinate order latitude(north), longitude(east) = y x
+                // we make this the default order
+                return new Point(easScheme, coordinates.get(1), coordinates.get(0));
+            }
+        }
+        finally {
+            coordinates.clear();
         }
     }
 
@@ -145,39 +149,10 @@ public abstract class AbstractSpatialHandler extends CrosswalkHandler<EasyMetada
         float upperX = Float.parseFloat(upper.getX());
         float lowerY = Float.parseFloat(lower.getY());
         float lowerX = Float.parseFloat(lower.getX());
-        String n = "" + (upperY > lowerY ? upperY : lowerY);
-        String s = "" + (upperY < lowerY ? upperY : lowerY);
-        String e = "" + (upperX > lowerX ? upperX : lowerX);
-        String w = "" + (upperX < lowerX ? upperX : lowerX);
+        String n = Float.toString(upperY > lowerY ? upperY : lowerY);
+        String s = Float.toString(upperY < lowerY ? upperY : lowerY);
+        String e = Float.toString(upperX > lowerX ? upperX : lowerX);
+        String w = Float.toString(upperX < lowerX ? upperX : lowerX);
         return new Box(easScheme, n, e, s, w);
     }
-
-    List<PolygonPoint> createPolygonPoints() throws SAXException {
-        String[] coordinates = getCharsSinceStart().trim().split("\\s+");
-        int length = coordinates.length;
-        if (length < 8) {
-            error("expected at least 4 coordinate pairs to construct at least a triangle");
-            return null;
-        } else if (length % 2 == 1) {
-            error("expected an even number of coordinates since they're taken in pairs of two");
-            return null;
-        } else if (!coordinates[0].equals(coordinates[length - 2]) && !coordinates[1].equals(coordinates[length - 1])) {
-            error("first pair of coordinates should equal the last pair of coordinates");
-            return null;
-        }
-
-        String easScheme = srsName2EasScheme(getFoundSRS());
-        boolean isRD = easScheme != null && easScheme.contentEquals("RD");
-        List<PolygonPoint> result = new ArrayList<PolygonPoint>(length / 2);
-        for (int i = 0; i < length; i += 2) {
-            String x = coordinates[i];
-            String y = coordinates[i + 1];
-
-            if (isRD)
-                result.add(new PolygonPoint(y, x));
-            else
-                result.add(new PolygonPoint(x, y));
-        }
-        return result;
-    }
 }
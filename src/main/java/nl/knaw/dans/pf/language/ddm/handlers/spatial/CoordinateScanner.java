@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.handlers.spatial;
+
+import java.util.Arrays;
+
+/**
+ * Finds the coordinates in the text of a GML element without regular expressions or intermediate strings. Equivalent to
+ * <code>text.trim().split("\\s+")</code>, except that empty text has no coordinates rather than one empty coordinate. Only the offsets of the tokens are
+ * kept, a token becomes a string when it is used. An instance reuses its arrays for the next text.
+ */
+final class CoordinateScanner {
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int count;
+    private CharSequence text;
+
+    /**
+     * @param text
+     *        the text to scan, must not change while the scanner is in use
+     * @return the number of coordinates
+     */
+    int scan(final CharSequence text) {
+        this.text = text;
+        count = 0;
+        int begin = 0;
+        int end = text.length();
+        // as String.trim()
+        while (begin < end && text.charAt(begin) <= ' ')
+            begin++;
+        while (end > begin && text.charAt(end - 1) <= ' ')
+            end--;
+        int i = begin;
+        while (i < end) {
+            final int start = i;
+            while (i < end && !isSeparator(text.charAt(i)))
+                i++;
+            add(start, i);
+            while (i < end && isSeparator(text.charAt(i)))
+                i++;
+        }
+        return count;
+    }
+
+    /** @return the coordinate as it appears in the text */
+    String get(final int index) {
+        return text.subSequence(starts[index], ends[index]).toString();
+    }
+
+    /** Forgets the text, so it is not kept alive. */
+    void clear() {
+        text = null;
+        count = 0;
+    }
+
+    private void add(final int start, final int end) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        count++;
+    }
+
+    /** the characters of the regular expression \s */
+    private static boolean isSeparator(final char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.handlers.spatial;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.knaw.dans.pf.language.emd.types.PolygonPoint;
+
+/**
+ * Turns the text of a gml:posList into polygon points while the characters arrive, so the text is never held as a whole. Only the current coordinate is
+ * buffered. In XML 1.0 content the only characters up to a space are the white space that separates the coordinates, so the result equals splitting the
+ * trimmed text on white space.
+ */
+final class PosListParser {
+    private final StringBuilder token = new StringBuilder();
+    private boolean swap;
+    private List<PolygonPoint> points;
+    private int count;
+    private String pending;
+    private String first;
+    private String second;
+    private String beforeLast;
+    private String last;
+
+    /**
+     * @param swap
+     *        true if the first coordinate of a pair is the y coordinate
+     */
+    void start(final boolean swap) {
+        this.swap = swap;
+        points = new ArrayList<PolygonPoint>();
+        token.setLength(0);
+        count = 0;
+        pending = first = second = beforeLast = last = null;
+    }
+
+    void chars(final char[] ch, final int start, final int length) {
+        final int end = start + length;
+        for (int i = start; i < end; i++) {
+            final char c = ch[i];
+            if (c <= ' ')
+                endToken();
+            else
+                token.append(c);
+        }
+    }
+
+    /**
+     * @return the error message, null if the points are valid
+     */
+    String finish() {
+        endToken();
+        if (count < 8)
+            return "expected at least 4 coordinate pairs to construct at least a triangle";
+        else if (count % 2 == 1)
+            return "expected an even number of coordinates since they're taken in pairs of two";
+        else if (!first.equals(beforeLast) && !second.equals(last))
+            return "first pair of coordinates should equal the last pair of coordinates";
+        return null;
+    }
+
+    /** @return the points, valid if {@link #finish()} returned null */
+    List<PolygonPoint> getPoints() {
+        return points;
+    }
+
+    /** Forgets the points, so they are not kept alive by the handler. */
+    void clear() {
+        points = null;
+        pending = first = second = beforeLast = last = null;
+    }
+
+    private void endToken() {
+        if (token.length() == 0)
+            return;
+        final String coordinate = token.toString();
+        token.setLength(0);
+        if (count == 0)
+            first = coordinate;
+        else if (count == 1)
+            second = coordinate;
+        beforeLast = last;
+        last = coordinate;
+        if (count % 2 == 0)
+            pending = coordinate;
+        else {
+            points.add(swap ? new PolygonPoint(coordinate, pending) : new PolygonPoint(pending, coordinate));
+            pending = null;
+        }
+        count++;
+    }
+}
@@ -48,6 +48,9 @@ public class SpatialPolygonHandler extends AbstractSpatialHandler {
 
     private Consumer<Polygon> multiPolygonCallback = null;
 
+    private final PosListParser posList = new PosListParser();
+    private boolean parsingPosList = false;
+
     void setMultiPolygonHandler(Consumer<Polygon> callback) {
         multiPolygonCallback = callback;
     }
@@ -64,6 +67,7 @@ public class SpatialPolygonHandler extends AbstractSpatialHandler {
         interiorParts = new ArrayList<PolygonPart>();
 
         multiPolygonCallback = null;
+        parsingPosList = false;
     }
 
     @Override
@@ -87,6 +91,34 @@ public class SpatialPolygonHandler extends AbstractSpatialHandler {
             state = I_DESCR.getNextState();
         else if ("interior".equals(localName))
             state = INTERIOR;
+
+        if ("posList".equals(localName) && (state == E_POSLIST || state == I_POSLIST)) {
+            // large lists are parsed while the characters arrive
+            suspendBuffering();
+            String easScheme = srsName2EasScheme(getFoundSRS());
+            posList.start(easScheme != null && easScheme.contentEquals("RD"));
+            parsingPosList = true;
+        }
+    }
+
+    @Override
+    public void chars(final char[] ch, final int start, final int length) throws SAXException {
+        if (parsingPosList)
+            posList.chars(ch, start, length);
+    }
+
+    private List<PolygonPoint> finishPosList() throws SAXException {
+        parsingPosList = false;
+        try {
+            String message = posList.finish();
+            if (message == null)
+                return posList.getPoints();
+            error(message);
+            return null;
+        }
+        finally {
+            posList.clear();
+        }
     }
 
     @Override
@@ -100,10 +132,10 @@ public class SpatialPolygonHandler extends AbstractSpatialHandler {
         else if ("description".equals(localName) && state == I_DESCR)
             interiorDescription = getCharsSinceStart().trim();
         else if ("posList".equals(localName) && state == E_POSLIST) {
-            exteriorPoints = createPolygonPoints();
+            exteriorPoints = finishPosList();
             state = state.getNextState();
         } else if ("posList".equals(localName) && state == I_POSLIST) {
-            interiorPoints = createPolygonPoints();
+            interiorPoints = finishPosList();
             state = state.getNextState();
         } else if ("exterior".equals(localName) && state == END_EXTERIOR) {
             exteriorPart = new PolygonPart(exteriorDescription, exteriorPoints);
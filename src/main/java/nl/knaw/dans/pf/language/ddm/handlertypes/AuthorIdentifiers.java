@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.handlertypes;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import nl.knaw.dans.common.lang.id.DAI;
+
+/**
+ * Normalizes and validates the identifiers of persons in a single scan, including the ISO 7064 mod 11-2 check character of ISNI and ORCID. The same
+ * persons appear in many datasets, so the outcomes are remembered, up to {@value #MEMO_SIZE} values per kind of identifier.
+ */
+final class AuthorIdentifiers {
+    static final int MEMO_SIZE = 4096;
+
+    private static final String ISNI_URI = "http://isni.org/isni/";
+    private static final String ISNI_PREFIX = "ISNI:";
+    private static final String ORCID_URI = "https://orcid.org/";
+
+    /** remembers an invalid value */
+    private static final String INVALID = "";
+
+    private static final ConcurrentMap<String, String> isnis = new ConcurrentHashMap<String, String>();
+    private static final ConcurrentMap<String, String> orcids = new ConcurrentHashMap<String, String>();
+    private static final ConcurrentMap<String, Boolean> dais = new ConcurrentHashMap<String, Boolean>();
+
+    private AuthorIdentifiers() {}
+
+    /**
+     * @param value
+     *        16 characters, optionally a space between the groups of four, after an optional {@value #ISNI_URI} and/or {@value #ISNI_PREFIX}
+     * @return the 16 characters, null if invalid
+     */
+    static String isni(final String value) {
+        String isni = isnis.get(value);
+        if (isni == null)
+            isni = remember(isnis, value, scanIsni(value));
+        return isni == INVALID ? null : isni;
+    }
+
+    /**
+     * @param value
+     *        four groups of four characters separated by hyphens, after an optional {@value #ORCID_URI}
+     * @return the groups with hyphens, null if invalid
+     */
+    static String orcid(final String value) {
+        String orcid = orcids.get(value);
+        if (orcid == null)
+            orcid = remember(orcids, value, scanOrcid(value));
+        return orcid == INVALID ? null : orcid;
+    }
+
+    /**
+     * @param entityId
+     *        a DAI without identification system
+     * @return true if the check character is valid
+     */
+    static boolean isValidDai(final String entityId) {
+        if (entityId == null)
+            return false;
+        Boolean valid = dais.get(entityId);
+        if (valid == null)
+            valid = remember(dais, entityId, DAI.isValid(entityId));
+        return valid;
+    }
+
+    /**
+     * @return the ISNI without prefixes, to report an invalid value
+     */
+    static String stripIsni(final String value) {
+        return value.substring(skipIsniPrefixes(value));
+    }
+
+    /**
+     * @return the ORCID without prefix, to report an invalid value
+     */
+    static String stripOrcid(final String value) {
+        return value.startsWith(ORCID_URI) ? value.substring(ORCID_URI.length()) : value;
+    }
+
+    private static <V> V remember(final ConcurrentMap<String, V> memo, final String key, final V value) {
+        // a rough bound is good enough, the memo refills with the identifiers that matter
+        if (memo.size() >= MEMO_SIZE)
+            memo.clear();
+        memo.put(key, value);
+        return value;
+    }
+
+    private static int skipIsniPrefixes(final String value) {
+        int start = value.startsWith(ISNI_URI) ? ISNI_URI.length() : 0;
+        if (value.startsWith(ISNI_PREFIX, start))
+            start += ISNI_PREFIX.length();
+        return start;
+    }
+
+    private static String scanIsni(final String value) {
+        final char[] isni = new char[16];
+        int n = 0;
+        final int length = value.length();
+        for (int i = skipIsniPrefixes(value); i < length; i++) {
+            final char c = value.charAt(i);
+            if (c == ' ' && (n == 4 || n == 8 || n == 12) && value.charAt(i - 1) != ' ')
+                continue;
+            if (n == 16 || !isDigitOrCheck(c, n == 15))
+                return INVALID;
+            isni[n++] = c;
+        }
+        return n == 16 && isValidCheck(isni) ? new String(isni) : INVALID;
+    }
+
+    private static String scanOrcid(final String value) {
+        final int start = value.startsWith(ORCID_URI) ? ORCID_URI.length() : 0;
+        if (value.length() - start != 19)
+            return INVALID;
+        final char[] digits = new char[16];
+        int n = 0;
+        for (int i = start; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            final int position = i - start;
+            if (position % 5 == 4) {
+                if (c != '-')
+                    return INVALID;
+            }
+            else if (isDigitOrCheck(c, n == 15))
+                digits[n++] = c;
+            else
+                return INVALID;
+        }
+        if (!isValidCheck(digits))
+            return INVALID;
+        final String orcid = value.substring(start);
+        return orcid.charAt(18) == 'x' ? orcid.substring(0, 18) + 'X' : orcid;
+    }
+
+    private static boolean isDigitOrCheck(final char c, final boolean last) {
+        return (c >= '0' && c <= '9') || (last && (c == 'X' || c == 'x'));
+    }
+
+    /**
+     * Checks ISO 7064 mod 11-2. A lower case x is normalized to upper case.
+     * 
+     * @param digits
+     *        15 digits and a check character
+     */
+    private static boolean isValidCheck(final char[] digits) {
+        int total = 0;
+        for (int i = 0; i < 15; i++)
+            total = (total + digits[i] - '0') * 2;
+        final int check = (12 - total % 11) % 11;
+        if (digits[15] == 'x')
+            digits[15] = 'X';
+        return digits[15] == (check == 10 ? 'X' : (char) ('0' + check));
+    }
+}
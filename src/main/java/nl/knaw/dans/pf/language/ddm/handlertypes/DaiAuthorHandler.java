@@ -17,9 +17,7 @@ package nl.knaw.dans.pf.language.ddm.handlertypes;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.regex.Pattern;
 
-import nl.knaw.dans.common.lang.id.DAI;
 import nl.knaw.dans.pf.language.emd.EasyMetadata;
 import nl.knaw.dans.pf.language.emd.types.Author;
 import nl.knaw.dans.pf.language.emd.types.EmdConstants;
@@ -30,14 +28,6 @@ import org.xml.sax.SAXException;
 
 public abstract class DaiAuthorHandler extends CrosswalkHandler<EasyMetadata> {
 
-    private static final Pattern isniStart1 = Pattern.compile("^http://isni.org/isni/");
-    private static final Pattern isniStart2 = Pattern.compile("^ISNI:");
-    private static final Pattern isniPattern1 = Pattern.compile("([0-9]){15,16}X{0,1}");
-    private static final Pattern isniPattern2 = Pattern.compile("([0-9]{4}[ ]{0,1}){3}[0-9]{3}[0-9xX]{1}");
-
-    private static final Pattern orcidStart = Pattern.compile("^https://orcid.org/");
-    private static final Pattern orcidPattern = Pattern.compile("([0-9]{4}-){3}[0-9]{3}[0-9xX]{0,1}");
-
     protected Author createDaiAuthor(final String uri, final String localName) throws SAXException {
         final String value = getCharsSinceStart().trim();
         final String attribute = getAttribute("", "DAI").trim();
@@ -50,16 +40,16 @@ public abstract class DaiAuthorHandler extends CrosswalkHandler<EasyMetadata> {
 
     Author setDAI(final Author author, final String value) throws SAXException {
         if (value.startsWith("info")) {
-            final String[] strings = value.split("/");
-            final String entityId = strings[strings.length - 1];
-            final String idSys = value.replaceAll(entityId + "$", "");
+            final int slash = value.lastIndexOf('/');
+            final String entityId = value.substring(slash + 1);
+            final String idSys = value.substring(0, slash + 1);
             EntityId entity = author.setEntityIdWithScheme(entityId, EmdConstants.SCHEME_DAI);
             entity.setIdentificationSystem(toURI(idSys));
         }
         else
             author.setEntityIdWithScheme(value, EmdConstants.SCHEME_DAI);
 
-        if (!DAI.isValid(author.getEntityId())) {
+        if (!AuthorIdentifiers.isValidDai(author.getEntityId())) {
             error("invalid DAI " + author.getEntityId());
             return null;
         }
@@ -68,22 +58,19 @@ public abstract class DaiAuthorHandler extends CrosswalkHandler<EasyMetadata> {
     }
 
     void setISNI(final Author author, final String value) throws SAXException {
-        String strippedStart1 = isniStart1.matcher(value).replaceFirst("");
-        String entityId = isniStart2.matcher(strippedStart1).replaceFirst("");
-
-        if (isniPattern1.matcher(entityId).matches() || isniPattern2.matcher(entityId).matches())
-            author.setIsni(entityId.replaceAll("\\s", ""));
+        final String isni = AuthorIdentifiers.isni(value);
+        if (isni != null)
+            author.setIsni(isni);
         else
-            error("invalid ISNI " + entityId);
+            error("invalid ISNI " + AuthorIdentifiers.stripIsni(value));
     }
 
     void setORCID(final Author author, final String value) throws SAXException {
-        String entityId = orcidStart.matcher(value).replaceFirst("");
-
-        if (orcidPattern.matcher(entityId).matches())
-            author.setOrcid(entityId);
+        final String orcid = AuthorIdentifiers.orcid(value);
+        if (orcid != null)
+            author.setOrcid(orcid);
         else
-            error("invalid ORCID " + entityId);
+            error("invalid ORCID " + AuthorIdentifiers.stripOrcid(value));
     }
 
     private URI toURI(final String string) throws SAXException {
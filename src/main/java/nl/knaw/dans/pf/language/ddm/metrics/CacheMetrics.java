@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Publishes the counters that a cache keeps itself.
+ */
+public class CacheMetrics implements CacheMetricsMBean {
+    private final LongSupplier hits;
+    private final LongSupplier misses;
+
+    /**
+     * @param hits
+     *        reads the number of requests served from the cache
+     * @param misses
+     *        reads the number of requests that had to be computed
+     */
+    public CacheMetrics(final LongSupplier hits, final LongSupplier misses) {
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.getAsLong();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.getAsLong();
+    }
+
+    @Override
+    public double getHitRate() {
+        final long h = getHits();
+        final long total = h + getMisses();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import nl.knaw.dans.pf.language.xml.schema.SchemaCache;
+
+/**
+ * Metrics of the stages of {@link nl.knaw.dans.pf.language.ddm.api.Ddm2EmdCrosswalk}: validation against the XSD, the crosswalk itself and the check
+ * of the resulting Easy Meta Data, plus the hit rates of the caches. Attach an instance with
+ * {@link nl.knaw.dans.pf.language.ddm.api.Ddm2EmdCrosswalk#setMetrics(Ddm2EmdMetrics)} and optionally publish it with {@link #register(String)}. With
+ * single pass validation the validation time is part of the crosswalk stage.
+ */
+public class Ddm2EmdMetrics {
+    /** The JMX domain of the published metrics. */
+    public static final String DOMAIN = "nl.knaw.dans.easy.ddm";
+
+    private final StageMetrics validation = new StageMetrics();
+    private final StageMetrics crosswalk = new StageMetrics();
+    private final StageMetrics emdCheck = new StageMetrics();
+    private final Map<String, CacheMetricsMBean> caches = new LinkedHashMap<String, CacheMetricsMBean>();
+    private final List<ObjectName> registered = new ArrayList<ObjectName>();
+
+    public Ddm2EmdMetrics() {
+        caches.put("schemas", new CacheMetrics(SchemaCache::getHits, SchemaCache::getMisses));
+    }
+
+    public StageMetrics getValidation() {
+        return validation;
+    }
+
+    public StageMetrics getCrosswalk() {
+        return crosswalk;
+    }
+
+    public StageMetrics getEmdCheck() {
+        return emdCheck;
+    }
+
+    /**
+     * Publishes the metrics of the stages and caches with the platform MBean server, as {@value #DOMAIN}:type=Ddm2EmdCrosswalk,name=...,stage=... and
+     * {@value #DOMAIN}:type=Cache,name=...,cache=...
+     * 
+     * @param name
+     *        distinguishes the crosswalk instance from others in the same JVM
+     * @throws JMException
+     *         if the name is invalid or already taken
+     */
+    public synchronized void register(final String name) throws JMException {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final String quoted = ObjectName.quote(name);
+        final Map<ObjectName, Object> beans = new LinkedHashMap<ObjectName, Object>();
+        beans.put(new ObjectName(DOMAIN + ":type=Ddm2EmdCrosswalk,name=" + quoted + ",stage=validation"), validation);
+        beans.put(new ObjectName(DOMAIN + ":type=Ddm2EmdCrosswalk,name=" + quoted + ",stage=crosswalk"), crosswalk);
+        beans.put(new ObjectName(DOMAIN + ":type=Ddm2EmdCrosswalk,name=" + quoted + ",stage=emdCheck"), emdCheck);
+        for (final Map.Entry<String, CacheMetricsMBean> cache : caches.entrySet())
+            beans.put(new ObjectName(DOMAIN + ":type=Cache,name=" + quoted + ",cache=" + cache.getKey()), cache.getValue());
+        try {
+            for (final Map.Entry<ObjectName, Object> bean : beans.entrySet()) {
+                server.registerMBean(bean.getValue(), bean.getKey());
+                registered.add(bean.getKey());
+            }
+        }
+        catch (final JMException e) {
+            unregister();
+            throw e;
+        }
+    }
+
+    /** Withdraws whatever {@link #register(String)} published. */
+    public synchronized void unregister() {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (final ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            }
+            catch (final JMException e) {
+                // already gone
+            }
+        }
+        registered.clear();
+    }
+
+    /**
+     * Adds a cache to publish, call before {@link #register(String)}.
+     * 
+     * @param name
+     *        of the cache
+     * @param cache
+     *        the counters of the cache
+     */
+    public synchronized void addCache(final String name, final CacheMetricsMBean cache) {
+        caches.put(name, cache);
+    }
+}
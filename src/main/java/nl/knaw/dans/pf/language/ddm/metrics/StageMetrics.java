@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts documents, failures and latencies of one stage. Recording is lock free and does not allocate: a latency is counted in a bucket per power of two
+ * nanoseconds.
+ */
+public class StageMetrics implements StageMetricsMBean {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private volatile long startNanos = System.nanoTime();
+
+    public StageMetrics() {
+        for (int i = 0; i < BUCKETS; i++)
+            buckets[i] = new LongAdder();
+    }
+
+    /**
+     * @param nanos
+     *        time spent on one document
+     * @param failed
+     *        true if the document did not pass the stage
+     */
+    public void record(final long nanos, final boolean failed) {
+        final long latency = Math.max(0, nanos);
+        count.increment();
+        if (failed)
+            failures.increment();
+        totalNanos.add(latency);
+        maxNanos.accumulate(latency);
+        // bucket i holds latencies below 2^i nanoseconds
+        buckets[Math.min(BUCKETS - 1, BUCKETS - Long.numberOfLeadingZeros(latency))].increment();
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public double getDocumentsPerSecond() {
+        final double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds <= 0 ? 0 : getCount() / seconds;
+    }
+
+    @Override
+    public double getMeanLatencyMillis() {
+        final long n = getCount();
+        return n == 0 ? 0 : totalNanos.sum() / 1e6 / n;
+    }
+
+    @Override
+    public double getMaxLatencyMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    @Override
+    public double getMedianLatencyMillis() {
+        return getPercentileMillis(0.5);
+    }
+
+    @Override
+    public double get99thPercentileLatencyMillis() {
+        return getPercentileMillis(0.99);
+    }
+
+    private double getPercentileMillis(final double fraction) {
+        final long[] counts = snapshot();
+        long total = 0;
+        for (final long c : counts)
+            total += c;
+        if (total == 0)
+            return 0;
+        final long threshold = (long) Math.ceil(total * fraction);
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts[i];
+            if (cumulative >= threshold)
+                return upperBoundNanos(i) / 1e6;
+        }
+        return getMaxLatencyMillis();
+    }
+
+    @Override
+    public String[] getLatencyHistogram() {
+        final long[] counts = snapshot();
+        final List<String> result = new ArrayList<String>();
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0)
+                result.add(String.format(Locale.ROOT, "%.6f-%.6f ms=%d", lowerBoundNanos(i) / 1e6, upperBoundNanos(i) / 1e6, counts[i]));
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    @Override
+    public void reset() {
+        count.reset();
+        failures.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        for (final LongAdder bucket : buckets)
+            bucket.reset();
+        startNanos = System.nanoTime();
+    }
+
+    private long[] snapshot() {
+        final long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            counts[i] = buckets[i].sum();
+        return counts;
+    }
+
+    private static double lowerBoundNanos(final int bucket) {
+        return bucket == 0 ? 0 : Math.pow(2, bucket - 1);
+    }
+
+    private static double upperBoundNanos(final int bucket) {
+        return Math.pow(2, bucket);
+    }
+}
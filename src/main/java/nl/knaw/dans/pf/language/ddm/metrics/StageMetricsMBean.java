@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.metrics;
+
+/**
+ * Throughput, latency and failures of one stage of the crosswalk, as published through JMX.
+ */
+public interface StageMetricsMBean {
+
+    /** @return the number of documents that passed the stage since the start or the last reset */
+    long getCount();
+
+    /** @return the number of documents that failed in the stage */
+    long getFailures();
+
+    /** @return documents per second since the start or the last reset */
+    double getDocumentsPerSecond();
+
+    double getMeanLatencyMillis();
+
+    double getMaxLatencyMillis();
+
+    /** @return upper bound of the latency of half of the documents, precise within a factor of two */
+    double getMedianLatencyMillis();
+
+    /** @return upper bound of the latency of 99% of the documents, precise within a factor of two */
+    double get99thPercentileLatencyMillis();
+
+    /** @return per power of two latency range the number of documents, for example "0.512-1.024 ms=17", empty ranges omitted */
+    String[] getLatencyHistogram();
+
+    void reset();
+}
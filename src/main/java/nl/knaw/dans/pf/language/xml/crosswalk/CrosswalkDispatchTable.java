@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.crosswalk;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Finds the registration for an element by name space, local name and the local name of its type, without creating strings. Fill the table before
+ * sharing it, lookups don't change it and may be done concurrently.
+ */
+public class CrosswalkDispatchTable<T> {
+    private final Map<String, Map<String, Element<T>>> elements = new HashMap<String, Map<String, Element<T>>>();
+
+    /** What is registered for one combination of name space, local name and type. */
+    public static final class Registration<T> {
+        private final String key;
+        private final CrosswalkHandlerFactory<T> factory;
+
+        private Registration(final String key, final CrosswalkHandlerFactory<T> factory) {
+            this.key = key;
+            this.factory = factory;
+        }
+
+        /** @return the key of the registration, see {@link CrosswalkHandlerMap#getKey(String, String, org.xml.sax.Attributes)} */
+        public String getKey() {
+            return key;
+        }
+
+        /** @return null if the element is registered without a handler, for example because child elements are handled */
+        public CrosswalkHandlerFactory<T> getFactory() {
+            return factory;
+        }
+    }
+
+    /** The registrations for one element, the typed ones are few so a linear search is fast enough. */
+    private static final class Element<T> {
+        private Registration<T> untyped;
+        private String[] types = new String[0];
+        private Registration<?>[] typed = new Registration<?>[0];
+
+        @SuppressWarnings("unchecked")
+        private Registration<T> get(final String typeValue) {
+            if (typeValue == null)
+                return untyped;
+            // the local name of a prefixed value is what follows the first colon up to the next one, if any
+            final int colon = typeValue.indexOf(':');
+            final int start = colon < 0 ? 0 : colon + 1;
+            final int next = colon < 0 ? -1 : typeValue.indexOf(':', start);
+            final int length = (next < 0 ? typeValue.length() : next) - start;
+            if (length == 0)
+                return untyped;
+            for (int i = 0; i < types.length; i++) {
+                if (types[i].length() == length && typeValue.regionMatches(start, types[i], 0, length))
+                    return (Registration<T>) typed[i];
+            }
+            return null;
+        }
+
+        private void put(final String type, final Registration<T> registration) {
+            if (type.length() == 0) {
+                untyped = registration;
+                return;
+            }
+            for (int i = 0; i < types.length; i++) {
+                if (types[i].equals(type)) {
+                    typed[i] = registration;
+                    return;
+                }
+            }
+            types = Arrays.copyOf(types, types.length + 1);
+            typed = Arrays.copyOf(typed, typed.length + 1);
+            types[types.length - 1] = type;
+            typed[typed.length - 1] = registration;
+        }
+    }
+
+    /**
+     * @param uri
+     *        name space of the element
+     * @param localName
+     *        of the element
+     * @param type
+     *        local name of the type, empty for elements without a type attribute
+     * @param factory
+     *        null if no handler is required
+     */
+    public void register(final String uri, final String localName, final String type, final CrosswalkHandlerFactory<T> factory) {
+        register(uri, localName, type, type + "/{" + uri + "}" + localName, factory);
+    }
+
+    /**
+     * @param uri
+     *        name space of the element
+     * @param localName
+     *        of the element
+     * @param type
+     *        local name of the type, empty for elements without a type attribute
+     * @param key
+     *        identifies the registration in statistics
+     * @param factory
+     *        null if no handler is required
+     */
+    public void register(final String uri, final String localName, final String type, final String key, final CrosswalkHandlerFactory<T> factory) {
+        Map<String, Element<T>> byLocalName = elements.get(uri);
+        if (byLocalName == null) {
+            byLocalName = new HashMap<String, Element<T>>();
+            elements.put(uri, byLocalName);
+        }
+        Element<T> element = byLocalName.get(localName);
+        if (element == null) {
+            element = new Element<T>();
+            byLocalName.put(localName, element);
+        }
+        element.put(type, new Registration<T>(key, factory));
+    }
+
+    /**
+     * @param uri
+     *        name space of the element
+     * @param localName
+     *        of the element
+     * @param typeValue
+     *        value of the type attribute, possibly with a prefix, null if absent
+     * @return null if nothing is registered
+     */
+    public Registration<T> lookup(final String uri, final String localName, final String typeValue) {
+        final Map<String, Element<T>> byLocalName = elements.get(uri);
+        if (byLocalName == null)
+            return null;
+        final Element<T> element = byLocalName.get(localName);
+        if (element == null)
+            return null;
+        return element.get(typeValue);
+    }
+}
@@ -15,6 +15,8 @@
  */
 package nl.knaw.dans.pf.language.xml.crosswalk;
 
+import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkListener.Severity;
+
 import org.xml.sax.Attributes;
 import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
@@ -28,11 +30,22 @@ public class CrosswalkHandler<T> extends DefaultHandler {
     private Locator locator;
     private CrosswalkHandlerMap<T> handlerMap;
     private CrosswalkHandler<T> parentHandler;
+    private CrosswalkListener listener;
+    private long controlStart;
 
-    private StringBuffer charsSinceStart = new StringBuffer();
+    private final TextBuffer charsSinceStart = new TextBuffer();
+    private boolean buffering = true;
     private Attributes attributes = null;
     private int level;
 
+    /** set while the content of the element is ignored, see {@link #isContentIgnored()} */
+    private boolean discarding;
+    private int discardedElements;
+    private long discardedChars;
+
+    /** takes control of unknown elements at the root, a discarding handler never needs another one */
+    private DiscardHandler<T> discardHandler;
+
     /**
      * Create a handler. It may receive control by the startElement of another instance and will return control by the endElement at the same level.
      */
@@ -47,7 +60,21 @@ public class CrosswalkHandler<T> extends DefaultHandler {
      * @param handlerMap
      */
     public CrosswalkHandler(final T target, final XMLReader reader, final CrosswalkHandlerMap<T> handlerMap) {
+        this(target, reader, handlerMap, null);
+    }
+
+    /**
+     * Creates the root handler with a listener that is passed on to the handlers that receive control.
+     * 
+     * @param target
+     * @param reader
+     * @param handlerMap
+     * @param listener
+     *        null if nobody listens
+     */
+    public CrosswalkHandler(final T target, final XMLReader reader, final CrosswalkHandlerMap<T> handlerMap, final CrosswalkListener listener) {
         this.handlerMap = handlerMap;
+        this.listener = listener;
         takeControl(target, reader, null);
     }
 
@@ -58,16 +85,26 @@ public class CrosswalkHandler<T> extends DefaultHandler {
         this.reader.setContentHandler(this);
         if (parentHandler != null) {
             handlerMap = parentHandler.handlerMap;
+            listener = parentHandler.listener;
 
             // only the root handler receives a location notification from the SAX parser
             locator = parentHandler.locator;
         }
         // clear what is left by a previous cycle
-        charsSinceStart.delete(0, charsSinceStart.length());
+        charsSinceStart.clear();
+        buffering = true;
         level = 0;
+        discarding = false;
+        discardedElements = 0;
+        discardedChars = 0;
     }
 
     private void returnControl() {
+        if (listener != null) {
+            if (discarding)
+                listener.discarded(this, discardedElements, discardedChars);
+            listener.returnedControl(this, System.nanoTime() - controlStart);
+        }
         this.reader.setContentHandler(parentHandler);
         this.target = null;
         this.reader = null;
@@ -75,23 +112,76 @@ public class CrosswalkHandler<T> extends DefaultHandler {
         this.parentHandler = null;
     }
 
+    /** @return true between taking and returning parse control, also while a nested handler has control */
+    boolean isActive() {
+        return reader != null;
+    }
+
+    /** @return true at the start of the element this handler received control for, if the content of the element can be skipped */
+    boolean ignoresContent() {
+        return parentHandler != null && level == 0 && isContentIgnored();
+    }
+
+    /**
+     * Tells whether this handler uses neither the text nor the nested elements of the element it receives control for. A parser that can skip content, like
+     * the {@link Crosswalker.Engine#STAX} engine, then only notifies the start and end of that element. Otherwise the nested elements and the text are
+     * discarded without notifying the handler or looking up other handlers. With a {@link CrosswalkListener} the discarded elements and characters are
+     * counted.
+     * 
+     * @return false by default
+     */
+    protected boolean isContentIgnored() {
+        return false;
+    }
+
     @Override
     public final void startElement(final String uri, final String localName, final String qName, final Attributes attributes) throws SAXException {
-        charsSinceStart = new StringBuffer();
-        final CrosswalkHandler<T> handler = handlerMap.getHandler(uri, localName, attributes);
+        if (discarding) {
+            level++;
+            if (listener != null)
+                discardedElements++;
+            return;
+        }
+        charsSinceStart.clear();
+        buffering = true;
+        CrosswalkHandler<T> handler = handlerMap.getHandler(uri, localName, attributes);
+        if (listener != null)
+            listener.startedElement(handlerMap.getKey(uri, localName, attributes));
         level++;
+        if (handler == null && parentHandler == null) {
+            if (handlerMap.reportMissingHandler(uri, localName, attributes)) {
+                warning("skipped " + qName + " at level:" + level);
+                handler = getDiscardHandler();
+            }
+            else {
+                // a container handled by the handlers of its children, nobody reads its text
+                buffering = false;
+            }
+        }
         if (handler != null) {
             handler.takeControl(target, reader, this);
+            if (listener != null) {
+                handler.controlStart = System.nanoTime();
+                listener.tookControl(handler, uri, localName);
+            }
             handler.initFirstElement(uri, localName, attributes);
             handler.attributes = attributes;
+            if (handler.ignoresContent()) {
+                handler.discarding = true;
+                handler.suspendBuffering();
+            }
         } else {
             this.attributes = attributes;
-            if (parentHandler == null && handlerMap.reportMissingHandler(uri, localName, attributes))
-                warning("skipped " + qName + " at level:" + level);
         }
         initElement(uri, localName, attributes);
     }
 
+    private CrosswalkHandler<T> getDiscardHandler() {
+        if (discardHandler == null)
+            discardHandler = new DiscardHandler<T>();
+        return discardHandler;
+    }
+
     /**
      * Receive notification of the start of the first element treated by this handler. Especially in the case of a complex element: Be aware of remnants of a
      * previous cycle. See also the final startElement
@@ -105,7 +195,17 @@ public class CrosswalkHandler<T> extends DefaultHandler {
 
     @Override
     public final void endElement(final String uri, final String localName, final String qName) throws SAXException {
-        finishElement(uri, localName);
+        if (discarding && level > 0) {
+            level--;
+            return;
+        }
+        if (listener == null)
+            finishElement(uri, localName);
+        else {
+            final long start = System.nanoTime();
+            finishElement(uri, localName);
+            listener.finishedElement(this, uri, localName, System.nanoTime() - start);
+        }
         if (--level < 0)
             returnControl();
     }
@@ -117,7 +217,13 @@ public class CrosswalkHandler<T> extends DefaultHandler {
 
     @Override
     public final void characters(final char ch[], final int start, final int length) throws SAXException {
-        charsSinceStart.append(ch, start, length);
+        if (discarding) {
+            if (listener != null)
+                discardedChars += length;
+            return;
+        }
+        if (buffering)
+            charsSinceStart.append(ch, start, length);
         chars(ch, start, length);
     }
 
@@ -140,6 +246,30 @@ public class CrosswalkHandler<T> extends DefaultHandler {
         return charsSinceStart.toString();
     }
 
+    /**
+     * The same characters as {@link #getCharsSinceStart()} without creating a string, for example to check or scan the content before deciding to use it.
+     * 
+     * @return a view that changes with the next notification of the SAX parser, don't keep it
+     */
+    protected CharSequence getCharSequenceSinceStart() {
+        return charsSinceStart;
+    }
+
+    /**
+     * Stops collecting characters until the next startElement, for a handler that processes the characters of a large element through
+     * {@link #chars(char[], int, int)}. Call it from {@link #initElement(String, String, Attributes)}, {@link #getCharsSinceStart()} then returns nothing
+     * for the element.
+     */
+    protected void suspendBuffering() {
+        buffering = false;
+        charsSinceStart.clear();
+    }
+
+    /** @return true if the characters since the last startElement are empty or white space only */
+    protected boolean isBlankSinceStart() {
+        return charsSinceStart.isBlank();
+    }
+
     /**
      * The attributes saved by the last startElement. Beware of mixed/complex content, for example: <br>
      * &lt;p> Some &lt;b>bold&lt;/b> text &lt;/p><br>
@@ -156,14 +286,20 @@ public class CrosswalkHandler<T> extends DefaultHandler {
     }
 
     protected void warning(final String message) throws SAXException {
+        if (listener != null)
+            listener.reported(this, Severity.WARNING, message);
         reader.getErrorHandler().warning(new SAXParseException(message, locator));
     }
 
     protected void error(final String message) throws SAXException {
+        if (listener != null)
+            listener.reported(this, Severity.ERROR, message);
         reader.getErrorHandler().error(new SAXParseException(message, locator));
     }
 
     protected void fatalError(final String message) throws SAXException {
+        if (listener != null)
+            listener.reported(this, Severity.FATAL_ERROR, message);
         reader.getErrorHandler().fatalError(new SAXParseException(message, locator));
     }
 }
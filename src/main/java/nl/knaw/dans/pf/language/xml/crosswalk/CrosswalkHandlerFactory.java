@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.crosswalk;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Creates handlers for a {@link CrosswalkHandlerPool}. Registering factories rather than handler instances keeps the state of handlers local to a walk.
+ */
+public interface CrosswalkHandlerFactory<T> {
+    /**
+     * @param pool
+     *        the handlers of the current walk, allows to look up collaborating handlers
+     * @return a new handler
+     * @throws SAXException
+     */
+    CrosswalkHandler<T> newHandler(CrosswalkHandlerPool<T> pool) throws SAXException;
+}
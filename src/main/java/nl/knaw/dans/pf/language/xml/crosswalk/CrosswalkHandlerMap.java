@@ -42,4 +42,18 @@ public interface CrosswalkHandlerMap<T> {
      * @throws SAXException
      */
     boolean reportMissingHandler(final String uri, final String localName, final Attributes attributes) throws SAXException;
+
+    /**
+     * Identifies the configuration that applies to an element, for a {@link CrosswalkListener}. Only called when there is a listener. For description of
+     * the arguments see {@link CrosswalkHandler#startElement(String, String, String, Attributes)}
+     * 
+     * @param uri
+     * @param localName
+     * @param attributes
+     * @return by default {uri}localName
+     * @throws SAXException
+     */
+    default String getKey(final String uri, final String localName, final Attributes attributes) throws SAXException {
+        return "{" + (uri == null ? "" : uri) + "}" + localName;
+    }
 }
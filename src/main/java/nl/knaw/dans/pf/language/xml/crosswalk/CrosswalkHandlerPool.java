@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.crosswalk;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xml.sax.SAXException;
+
+/**
+ * The handler instances of a single walk. Handlers are created on first demand and reused for subsequent elements. A handler map should use one pool per
+ * walk, handler state then lives as long as the document and no longer.
+ */
+public class CrosswalkHandlerPool<T> {
+    private final Map<CrosswalkHandlerFactory<T>, List<CrosswalkHandler<T>>> instances = new IdentityHashMap<CrosswalkHandlerFactory<T>, List<CrosswalkHandler<T>>>();
+
+    /**
+     * @param factory
+     *        creates the handler if the pool has no suitable instance
+     * @return an instance created by the factory that does not have parse control. Normally the same instance for each call, another one for nested
+     *         elements of the same type.
+     * @throws SAXException
+     *         if the factory fails
+     */
+    public CrosswalkHandler<T> get(final CrosswalkHandlerFactory<T> factory) throws SAXException {
+        List<CrosswalkHandler<T>> created = instances.get(factory);
+        if (created == null) {
+            created = new ArrayList<CrosswalkHandler<T>>(1);
+            instances.put(factory, created);
+        }
+        for (final CrosswalkHandler<T> handler : created) {
+            if (!handler.isActive())
+                return handler;
+        }
+        final CrosswalkHandler<T> handler = factory.newHandler(this);
+        created.add(handler);
+        return handler;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.crosswalk;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.xml.sax.InputSource;
+
+/**
+ * The XML content of a walk. Repeatable content can be read once for the validation and again for the crosswalk, other content can be read only once.
+ */
+abstract class CrosswalkInput {
+
+    /** The encoding pseudo attribute of an XML declaration. */
+    private static final Pattern DECLARED_ENCODING = Pattern.compile("\\A(\\s*<\\?xml\\s[^?]*encoding\\s*=\\s*)(\"[^\"]*\"|'[^']*')");
+
+    /** @return a new source of the content, to be closed by the caller */
+    abstract InputSource open() throws IOException;
+
+    /** @return the content as bytes, for validators that only read bytes */
+    abstract InputStream openStream() throws IOException;
+
+    /** @return false if the content can be read only once */
+    boolean isRepeatable() {
+        return true;
+    }
+
+    static void close(final InputSource source) {
+        try {
+            if (source.getByteStream() != null)
+                source.getByteStream().close();
+            if (source.getCharacterStream() != null)
+                source.getCharacterStream().close();
+        }
+        catch (final IOException e) {
+            // nothing was written, the content has been read or is not needed any more
+        }
+    }
+
+    static CrosswalkInput of(final File file) {
+        return new CrosswalkInput() {
+            @Override
+            InputSource open() throws IOException {
+                final InputSource source = new InputSource(new FileInputStream(file));
+                source.setSystemId(file.toURI().toString());
+                return source;
+            }
+
+            @Override
+            InputStream openStream() throws IOException {
+                return new FileInputStream(file);
+            }
+        };
+    }
+
+    static CrosswalkInput of(final Path path) {
+        return new CrosswalkInput() {
+            @Override
+            InputSource open() throws IOException {
+                final InputSource source = new InputSource(Files.newInputStream(path));
+                source.setSystemId(path.toUri().toString());
+                return source;
+            }
+
+            @Override
+            InputStream openStream() throws IOException {
+                return Files.newInputStream(path);
+            }
+        };
+    }
+
+    /** The encoding of the bytes is determined by the XML declaration, as for a file. */
+    static CrosswalkInput of(final byte[] bytes) {
+        return new CrosswalkInput() {
+            @Override
+            InputSource open() {
+                return new InputSource(new ByteArrayInputStream(bytes));
+            }
+
+            @Override
+            InputStream openStream() {
+                return new ByteArrayInputStream(bytes);
+            }
+        };
+    }
+
+    /** Reads the remaining bytes of the buffer, without changing its position. */
+    static CrosswalkInput of(final ByteBuffer buffer) {
+        return new CrosswalkInput() {
+            @Override
+            InputSource open() {
+                return new InputSource(openStream());
+            }
+
+            @Override
+            InputStream openStream() {
+                return new ByteBufferInputStream(buffer.duplicate());
+            }
+        };
+    }
+
+    /**
+     * The characters are parsed as is, an encoding in the XML declaration is ignored. Validators that only read bytes get UTF-8 with a declaration to
+     * match.
+     */
+    static CrosswalkInput of(final String xml) {
+        return new CrosswalkInput() {
+            @Override
+            InputSource open() {
+                return new InputSource(new StringReader(xml));
+            }
+
+            @Override
+            InputStream openStream() {
+                // only for validators that can't read characters, the bytes must be decoded as they are encoded
+                return new ByteArrayInputStream(declareUtf8(xml).getBytes(StandardCharsets.UTF_8));
+            }
+        };
+    }
+
+    /** @return the XML with UTF-8 as encoding in its declaration, if it declares an encoding at all */
+    static String declareUtf8(final String xml) {
+        final Matcher matcher = DECLARED_ENCODING.matcher(xml);
+        if (!matcher.lookingAt())
+            return xml;
+        return matcher.group(1) + "\"UTF-8\"" + xml.substring(matcher.end());
+    }
+
+    /** Content that can be read once. A parser closes the streams of the source when done. */
+    static CrosswalkInput once(final InputSource source) {
+        return new CrosswalkInput() {
+            @Override
+            InputSource open() {
+                return source;
+            }
+
+            @Override
+            InputStream openStream() {
+                throw new IllegalStateException("content can be read only once");
+            }
+
+            @Override
+            boolean isRepeatable() {
+                return false;
+            }
+        };
+    }
+
+    /** The stream of the caller is not closed. */
+    static CrosswalkInput once(final InputStream stream) {
+        return once(new InputSource(new FilterInputStream(stream) {
+            @Override
+            public void close() {
+                // the caller owns the stream
+            }
+        }));
+    }
+
+    /** The reader of the caller is not closed. */
+    static CrosswalkInput once(final Reader reader) {
+        return once(new InputSource(new FilterReader(reader) {
+            @Override
+            public void close() {
+                // the caller owns the reader
+            }
+        }));
+    }
+
+    /** Reads without copying the buffer. */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (len == 0)
+                return 0;
+            if (!buffer.hasRemaining())
+                return -1;
+            final int count = Math.min(len, buffer.remaining());
+            buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.crosswalk;
+
+/**
+ * Receives notifications about the work of the {@link CrosswalkHandler}s, for example to find out which handlers or documents take most time. The
+ * notifications are sent by the thread that walks the document, an instance that is shared by crosswalkers or threads should be thread safe. Without a
+ * listener the handlers don't even measure time. See {@link CrosswalkStatistics} for a default implementation.
+ */
+public interface CrosswalkListener {
+
+    /**
+     * An element started that is not discarded.
+     * 
+     * @param key
+     *        of the element, see {@link CrosswalkHandlerMap#getKey(String, String, org.xml.sax.Attributes)}
+     */
+    default void startedElement(String key) {}
+
+    /**
+     * A handler received control at the start of an element.
+     * 
+     * @param handler
+     *        the handler that receives control
+     * @param uri
+     *        name space of the element
+     * @param localName
+     *        of the element
+     */
+    void tookControl(CrosswalkHandler<?> handler, String uri, String localName);
+
+    /**
+     * A handler returned control at the end of the element where it received control.
+     * 
+     * @param handler
+     *        the handler that returns control
+     * @param nanos
+     *        time since it received control, including the time of nested handlers
+     */
+    void returnedControl(CrosswalkHandler<?> handler, long nanos);
+
+    /**
+     * A handler finished an element.
+     * 
+     * @param handler
+     *        the handler that finished the element
+     * @param uri
+     *        name space of the element
+     * @param localName
+     *        of the element
+     * @param nanos
+     *        time spent in {@link CrosswalkHandler#finishElement(String, String)}
+     */
+    void finishedElement(CrosswalkHandler<?> handler, String uri, String localName, long nanos);
+
+    /**
+     * A handler reported a warning, error or fatal error.
+     * 
+     * @param handler
+     *        the handler that reported
+     * @param severity
+     *        of the notification
+     * @param message
+     *        as reported to the error handler
+     */
+    void reported(CrosswalkHandler<?> handler, Severity severity, String message);
+
+    /**
+     * A handler that ignores the content of its element returns control, see {@link CrosswalkHandler#isContentIgnored()}. Not notified when the parser
+     * skips the content itself, like the {@link Crosswalker.Engine#STAX} engine.
+     * 
+     * @param handler
+     *        the handler that discarded the content
+     * @param elements
+     *        the number of nested elements
+     * @param chars
+     *        the number of characters, including the text of nested elements
+     */
+    default void discarded(CrosswalkHandler<?> handler, int elements, long chars) {}
+
+    /** The kind of notification. */
+    enum Severity {
+        WARNING, ERROR, FATAL_ERROR
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.crosswalk;
+
+import java.nio.ByteBuffer;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+
+import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import com.fasterxml.aalto.AsyncByteArrayFeeder;
+import com.fasterxml.aalto.AsyncXMLInputFactory;
+import com.fasterxml.aalto.AsyncXMLStreamReader;
+import com.fasterxml.aalto.stax.InputFactoryImpl;
+
+/**
+ * A crosswalk that is fed with chunks of bytes as they arrive, for example from an asynchronous HTTP request. A chunk is processed as far as possible
+ * before {@link #feed(byte[], int, int)} returns, it never waits for more input. {@link #end()} returns the target. Created by
+ * {@link Crosswalker#startSession(nl.knaw.dans.pf.language.xml.validation.AbstractValidator2, Object)}.
+ * <p>
+ * A session is not thread safe, but subsequent calls may come from different threads as long as the caller orders them, as an event loop does. The
+ * notifications are collected by the session rather than by the handler of the calling thread.
+ * <p>
+ * Sessions parse with the asynchronous parser of aalto-xml, an optional dependency that users of sessions should add themselves. Without it, starting a
+ * session throws a {@link CrosswalkException}.
+ */
+public class CrosswalkSession<T> {
+    /** created by class, without looking up StAX services */
+    private static final AsyncXMLInputFactory FACTORY = new InputFactoryImpl();
+    private static final int COPY_SIZE = 8192;
+
+    private final Crosswalker<T> crosswalker;
+    private final T target;
+    private final XMLErrorHandler errorHandler;
+    private final AsyncXMLStreamReader<AsyncByteArrayFeeder> in;
+    private final StaxReader reader = new StaxReader();
+    private byte[] copy;
+    private boolean documentEnded = false;
+    private boolean closed = false;
+    private long nanos = 0;
+    private long callStart;
+
+    CrosswalkSession(final Crosswalker<T> crosswalker, final T target, final Schema schema, final XMLErrorHandler errorHandler,
+            final CrosswalkHandlerMap<T> handlerMap, final CrosswalkListener listener)
+    {
+        this.crosswalker = crosswalker;
+        this.target = target;
+        this.errorHandler = errorHandler;
+        in = FACTORY.createAsyncForByteArray();
+        reader.setErrorHandler(errorHandler);
+        final XMLReader handlerReader;
+        if (schema == null)
+            handlerReader = reader;
+        else {
+            final ValidatorHandler validatorHandler = schema.newValidatorHandler();
+            validatorHandler.setErrorHandler(errorHandler);
+            final ValidatingFilter filter = new ValidatingFilter(reader, validatorHandler);
+            filter.setErrorHandler(errorHandler);
+            // what the filter does at the start of a parse
+            reader.setContentHandler(filter);
+            handlerReader = filter;
+        }
+
+        // sets itself as ContentHandler of the reader passed into it
+        new CrosswalkHandler<T>(target, handlerReader, handlerMap, listener);
+        reader.start(in);
+    }
+
+    /**
+     * Processes the next chunk of the document. The bytes are not used after the method returns.
+     * 
+     * @param bytes
+     *        contains the chunk
+     * @param offset
+     *        of the chunk
+     * @param length
+     *        of the chunk
+     * @throws CrosswalkException
+     *         if the document is not well formed, the session is closed
+     * @throws IllegalStateException
+     *         if the session is closed
+     */
+    public void feed(final byte[] bytes, final int offset, final int length) throws CrosswalkException, IllegalStateException {
+        checkOpen();
+        if (length == 0)
+            return;
+        callStart = System.nanoTime();
+        try {
+            in.getInputFeeder().feedInput(bytes, offset, length);
+            drain();
+        }
+        catch (final XMLStreamException e) {
+            throw fail(e);
+        }
+        catch (final SAXException e) {
+            throw fail(e);
+        }
+        nanos += System.nanoTime() - callStart;
+    }
+
+    /**
+     * Processes the remaining bytes of the buffer as the next chunk of the document. The buffer is consumed: its position moves to the limit.
+     * 
+     * @param bytes
+     *        the chunk
+     * @throws CrosswalkException
+     *         if the document is not well formed, the session is closed
+     * @throws IllegalStateException
+     *         if the session is closed
+     */
+    public void feed(final ByteBuffer bytes) throws CrosswalkException, IllegalStateException {
+        if (bytes.hasArray()) {
+            feed(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+            bytes.position(bytes.limit());
+            return;
+        }
+        if (copy == null)
+            copy = new byte[COPY_SIZE];
+        while (bytes.hasRemaining()) {
+            final int length = Math.min(bytes.remaining(), copy.length);
+            bytes.get(copy, 0, length);
+            feed(copy, 0, length);
+        }
+    }
+
+    /**
+     * Ends the input and closes the session.
+     * 
+     * @return the target unless errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     *         if the document is not well formed or incomplete
+     * @throws IllegalStateException
+     *         if the session is closed
+     */
+    public T end() throws CrosswalkException, IllegalStateException {
+        checkOpen();
+        callStart = System.nanoTime();
+        try {
+            in.getInputFeeder().endOfInput();
+            drain();
+            if (!documentEnded)
+                throw new XMLStreamException("premature end of the document", in.getLocation());
+        }
+        catch (final XMLStreamException e) {
+            throw fail(e);
+        }
+        catch (final SAXException e) {
+            throw fail(e);
+        }
+        final boolean failed = errorHandler.getErrors().size() > 0 || errorHandler.getFatalErrors().size() > 0;
+        close(failed);
+        return failed ? null : target;
+    }
+
+    /** @return true if the session ended or failed */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /** @return the notifications of this session */
+    public XMLErrorHandler getXmlErrorHandler() {
+        return errorHandler;
+    }
+
+    private void drain() throws XMLStreamException, SAXException {
+        while (!documentEnded) {
+            final int event = in.next();
+            if (event == AsyncXMLStreamReader.EVENT_INCOMPLETE)
+                return;
+            reader.handle(event);
+            documentEnded = event == XMLStreamConstants.END_DOCUMENT;
+        }
+    }
+
+    private CrosswalkException fail(final XMLStreamException e) {
+        try {
+            return fail(reader.fatalError(e));
+        }
+        catch (final SAXException reported) {
+            return fail(reported);
+        }
+    }
+
+    private CrosswalkException fail(final SAXException e) {
+        close(true);
+        return new CrosswalkException("could not parse: " + e.getMessage(), e);
+    }
+
+    /** Closes the session during a call to feed or end. */
+    private void close(final boolean failed) {
+        nanos += System.nanoTime() - callStart;
+        closed = true;
+        try {
+            in.close();
+        }
+        catch (final XMLStreamException e) {
+            // nothing to release
+        }
+        crosswalker.stageCompleted(Crosswalker.Stage.CROSSWALK, nanos, failed);
+    }
+
+    private void checkOpen() throws IllegalStateException {
+        if (closed)
+            throw new IllegalStateException("the session is closed");
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.crosswalk;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects counts and times per handler class and counts per element key, as returned by
+ * {@link CrosswalkHandlerMap#getKey(String, String, org.xml.sax.Attributes)}, with counters that threads can update without contention. Share an instance
+ * between crosswalkers to watch a whole application, or use one per document to find pathological documents.
+ */
+public class CrosswalkStatistics implements CrosswalkListener {
+    private final ConcurrentMap<Class<?>, HandlerStatistics> handlers = new ConcurrentHashMap<Class<?>, HandlerStatistics>();
+    private final ConcurrentMap<String, LongAdder> elements = new ConcurrentHashMap<String, LongAdder>();
+
+    /** The counters of a single handler class. */
+    public static class HandlerStatistics {
+        private final LongAdder controls = new LongAdder();
+        private final LongAdder controlNanos = new LongAdder();
+        private final LongAdder elements = new LongAdder();
+        private final LongAdder finishNanos = new LongAdder();
+        private final LongAdder warnings = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder fatalErrors = new LongAdder();
+        private final LongAdder discardedElements = new LongAdder();
+        private final LongAdder discardedChars = new LongAdder();
+
+        /** @return the number of times the handler received control */
+        public long getControls() {
+            return controls.sum();
+        }
+
+        /** @return the time between receiving and returning control, including nested handlers */
+        public long getControlNanos() {
+            return controlNanos.sum();
+        }
+
+        /** @return the number of finished elements */
+        public long getElements() {
+            return elements.sum();
+        }
+
+        /** @return the time spent finishing elements */
+        public long getFinishNanos() {
+            return finishNanos.sum();
+        }
+
+        public long getWarnings() {
+            return warnings.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getFatalErrors() {
+            return fatalErrors.sum();
+        }
+
+        /** @return the number of nested elements ignored by the handler */
+        public long getDiscardedElements() {
+            return discardedElements.sum();
+        }
+
+        /** @return the number of characters ignored by the handler */
+        public long getDiscardedChars() {
+            return discardedChars.sum();
+        }
+
+        @Override
+        public String toString() {
+            return "controls=" + getControls() + " controlNanos=" + getControlNanos() + " elements=" + getElements() + " finishNanos=" + getFinishNanos()
+                    + " warnings=" + getWarnings() + " errors=" + getErrors() + " fatalErrors=" + getFatalErrors() + " discardedElements="
+                    + getDiscardedElements() + " discardedChars=" + getDiscardedChars();
+        }
+    }
+
+    @Override
+    public void startedElement(final String key) {
+        getElementCounter(key).increment();
+    }
+
+    @Override
+    public void tookControl(final CrosswalkHandler<?> handler, final String uri, final String localName) {
+        get(handler).controls.increment();
+    }
+
+    @Override
+    public void returnedControl(final CrosswalkHandler<?> handler, final long nanos) {
+        get(handler).controlNanos.add(nanos);
+    }
+
+    @Override
+    public void finishedElement(final CrosswalkHandler<?> handler, final String uri, final String localName, final long nanos) {
+        final HandlerStatistics statistics = get(handler);
+        statistics.elements.increment();
+        statistics.finishNanos.add(nanos);
+    }
+
+    @Override
+    public void reported(final CrosswalkHandler<?> handler, final Severity severity, final String message) {
+        final HandlerStatistics statistics = get(handler);
+        switch (severity) {
+        case WARNING:
+            statistics.warnings.increment();
+            break;
+        case ERROR:
+            statistics.errors.increment();
+            break;
+        default:
+            statistics.fatalErrors.increment();
+        }
+    }
+
+    @Override
+    public void discarded(final CrosswalkHandler<?> handler, final int elements, final long chars) {
+        final HandlerStatistics statistics = get(handler);
+        statistics.discardedElements.add(elements);
+        statistics.discardedChars.add(chars);
+    }
+
+    /** @return the counters per handler class name, sorted by name */
+    public Map<String, HandlerStatistics> getHandlerStatistics() {
+        final Map<String, HandlerStatistics> result = new TreeMap<String, HandlerStatistics>();
+        for (final Map.Entry<Class<?>, HandlerStatistics> entry : handlers.entrySet())
+            result.put(entry.getKey().getName(), entry.getValue());
+        return Collections.unmodifiableMap(result);
+    }
+
+    /** @return the number of started elements with the key */
+    public long getElementCount(final String key) {
+        final LongAdder counter = elements.get(key);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /** @return the element counts by key, sorted */
+    public Map<String, Long> getElementCounts() {
+        final Map<String, Long> result = new TreeMap<String, Long>();
+        for (final Map.Entry<String, LongAdder> entry : elements.entrySet())
+            result.put(entry.getKey(), entry.getValue().sum());
+        return Collections.unmodifiableMap(result);
+    }
+
+    /** Forgets all counts. */
+    public void reset() {
+        handlers.clear();
+        elements.clear();
+    }
+
+    private HandlerStatistics get(final CrosswalkHandler<?> handler) {
+        final Class<?> key = handler.getClass();
+        // a plain get avoids the locking of computeIfAbsent for the common case
+        final HandlerStatistics statistics = handlers.get(key);
+        if (statistics != null)
+            return statistics;
+        return handlers.computeIfAbsent(key, k -> new HandlerStatistics());
+    }
+
+    private LongAdder getElementCounter(final String key) {
+        final LongAdder counter = elements.get(key);
+        if (counter != null)
+            return counter;
+        return elements.computeIfAbsent(key, k -> new LongAdder());
+    }
+}
@@ -15,29 +15,48 @@
  */
 package nl.knaw.dans.pf.language.xml.crosswalk;
 
-import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
 
 import nl.knaw.dans.pf.language.xml.exc.XMLException;
+import nl.knaw.dans.pf.language.xml.schema.CachedSchemaValidator;
 import nl.knaw.dans.pf.language.xml.validation.AbstractValidator2;
 import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler;
 import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler.Reporter;
 
+import org.xml.sax.ErrorHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 public class Crosswalker<T> {
     private static final String VALIDATE_ERROR_MESSAGE = "could not validate against XSD: ";
-    private XMLReader reader;
-    private XMLErrorHandler errorHandler = new XMLErrorHandler(Reporter.off);
+    private static final String READ_ERROR_MESSAGE = "could not read: ";
+    /** replaces the handlers of a cached reader after a walk, so it doesn't keep the last document */
+    private static final DefaultHandler NO_HANDLER = new DefaultHandler();
+    private volatile Reporter reporter = Reporter.off;
+    private volatile boolean singlePass = false;
+    private volatile CrosswalkListener listener;
+    private volatile Engine engine = Engine.SAX;
+    private volatile int errorBudget = 0;
+
+    /** A reader is not thread safe but expensive to create, so each thread keeps its own. */
+    private final ThreadLocal<XMLReader> readers = new ThreadLocal<XMLReader>();
+
+    /** Each thread collects its own notifications. */
+    private final ThreadLocal<XMLErrorHandler> errorHandlers = ThreadLocal.withInitial(this::newXmlErrorHandler);
     public CrosswalkHandlerMap<T> handlerMap;
 
     /**
@@ -66,91 +85,478 @@ public class Crosswalker<T> {
      * @throws CrosswalkException
      */
     final protected T walk(final AbstractValidator2 validator, final File file, T target) throws CrosswalkException, IllegalStateException {
+        return walk(validator, CrosswalkInput.of(file), target);
+    }
+
+    /**
+     * Creates an object after an optional validation against an XSD.
+     * 
+     * @param validator
+     *        optional, omit if validation against XSD is already done, or the handlers passed on to the constructor are happy with invalid XML
+     * @param path
+     *        of a file with XML content
+     * @param target
+     *        an instance that receives values from the XML
+     * @return the target unless errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    final protected T walk(final AbstractValidator2 validator, final Path path, T target) throws CrosswalkException, IllegalStateException {
+        return walk(validator, CrosswalkInput.of(path), target);
+    }
+
+    /**
+     * Fills the target after an optional validation against an XSD.
+     * 
+     * @param validator
+     *        optional, omit if validation against XSD is already done, or the handlers passed on to the constructor are happy with invalid XML
+     * @param xml
+     *        the XML content, parsed as characters, so an encoding in the XML declaration does not apply
+     * @param target
+     *        an instance that receives values from the XML
+     * @return the target unless errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    final protected T walk(final AbstractValidator2 validator, final String xml, T target) throws CrosswalkException, IllegalStateException {
+        return walk(validator, CrosswalkInput.of(xml), target);
+    }
+
+    /**
+     * Fills the target after an optional validation against an XSD.
+     * 
+     * @param validator
+     *        optional, omit if validation against XSD is already done, or the handlers passed on to the constructor are happy with invalid XML
+     * @param xml
+     *        the XML content, the encoding is determined as for a file
+     * @param target
+     *        an instance that receives values from the XML
+     * @return the target unless errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    final protected T walk(final AbstractValidator2 validator, final byte[] xml, T target) throws CrosswalkException, IllegalStateException {
+        return walk(validator, CrosswalkInput.of(xml), target);
+    }
+
+    /**
+     * Fills the target after an optional validation against an XSD.
+     * 
+     * @param validator
+     *        optional, omit if validation against XSD is already done, or the handlers passed on to the constructor are happy with invalid XML
+     * @param xml
+     *        the remaining bytes are the XML content, the position of the buffer is not changed
+     * @param target
+     *        an instance that receives values from the XML
+     * @return the target unless errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    final protected T walk(final AbstractValidator2 validator, final ByteBuffer xml, T target) throws CrosswalkException, IllegalStateException {
+        return walk(validator, CrosswalkInput.of(xml), target);
+    }
+
+    /**
+     * Fills the target after an optional validation against an XSD. The stream is read once: with a {@link CachedSchemaValidator} validation is done in
+     * the same pass as the crosswalk, other validators require a copy of the content. The stream is not closed.
+     * 
+     * @param validator
+     *        optional, omit if validation against XSD is already done, or the handlers passed on to the constructor are happy with invalid XML
+     * @param xml
+     *        the XML content, the encoding is determined as for a file
+     * @param target
+     *        an instance that receives values from the XML
+     * @return the target unless errors are reported by the {@link XMLErrorHandler}
+     * @throws CrosswalkException
+     */
+    final protected T walk(final AbstractValidator2 validator, final InputStream xml, T target) throws CrosswalkException, IllegalStateException {
+        if (validator == null || validator instanceof CachedSchemaValidator)
+            return walk(validator, CrosswalkInput.once(xml), target);
         try {
-            if (validator != null)
-                validateAgainstXsd(validator, new FileInputStream(file));
-            return parse(new FileInputStream(file), target);
+            return walk(validator, CrosswalkInput.of(readAll(xml)), target);
         }
-        catch (final FileNotFoundException e) {
-            throw new CrosswalkException(VALIDATE_ERROR_MESSAGE + e.getMessage(), e);
+        catch (final IOException e) {
+            throw new CrosswalkException(READ_ERROR_MESSAGE + e.getMessage(), e);
         }
     }
 
     /**
-     * Fills the target after an optional validation against an XSD.
+     * Fills the target after an optional validation against an XSD. The reader is read once: with a {@link CachedSchemaValidator} validation is done in
+     * the same pass as the crosswalk, other validators require a copy of the content. The reader is not closed.
      * 
      * @param validator
      *        optional, omit if validation against XSD is already done, or the handlers passed on to the constructor are happy with invalid XML
      * @param xml
-     *        the XML content
+     *        the XML content, parsed as characters, so an encoding in the XML declaration does not apply
      * @param target
      *        an instance that receives values from the XML
      * @return the target unless errors are reported by the {@link XMLErrorHandler}
      * @throws CrosswalkException
      */
-    final protected T walk(final AbstractValidator2 validator, final String xml, T target) throws CrosswalkException, IllegalStateException {
-        final byte[] bytes = xml.getBytes();
-        if (validator != null)
-            validateAgainstXsd(validator, new ByteArrayInputStream(bytes));
-        return parse(new ByteArrayInputStream(bytes), target);
+    final protected T walk(final AbstractValidator2 validator, final Reader xml, T target) throws CrosswalkException, IllegalStateException {
+        if (validator == null || validator instanceof CachedSchemaValidator)
+            return walk(validator, CrosswalkInput.once(xml), target);
+        try {
+            return walk(validator, CrosswalkInput.of(readAll(xml)), target);
+        }
+        catch (final IOException e) {
+            throw new CrosswalkException(READ_ERROR_MESSAGE + e.getMessage(), e);
+        }
     }
 
     /**
-     * The handler of notifications. Initially the log level is off. The level can be changed with <code>setReporter(Reporter)</code>. The handler collects
-     * notifications of subsequent calls to the walk methods unless reset is called in between.
+     * Starts a crosswalk that is fed with chunks of XML as they arrive, see {@link CrosswalkSession}. The session always uses a StAX parser.
+     * 
+     * @param validator
+     *        optional, omit if validation against XSD is already done, or the handlers passed on to the constructor are happy with invalid XML. Validation is
+     *        done in the same pass, so only a {@link CachedSchemaValidator} applies.
+     * @param target
+     *        an instance that receives values from the XML
+     * @return a session collecting its own notifications
+     * @throws CrosswalkException
+     *         if aalto-xml is not on the class path
+     * @throws IllegalArgumentException
+     *         if the validator requires a pass of its own
+     */
+    final protected CrosswalkSession<T> startSession(final AbstractValidator2 validator, T target) throws CrosswalkException, IllegalArgumentException {
+        if (validator != null && !(validator instanceof CachedSchemaValidator))
+            throw new IllegalArgumentException("a session can only validate with a " + CachedSchemaValidator.class.getSimpleName());
+        if (!Aalto.AVAILABLE)
+            throw new CrosswalkException("sessions need aalto-xml on the class path", null);
+        return new CrosswalkSession<T>(this, target, getSinglePassSchema(validator, true), newXmlErrorHandler(), newHandlerMap(), listener);
+    }
+
+    /** looks for the optional dependency of {@link CrosswalkSession} once, before that class is loaded */
+    private static final class Aalto {
+        static final boolean AVAILABLE = isAvailable();
+
+        private static boolean isAvailable() {
+            try {
+                Class.forName("com.fasterxml.aalto.stax.InputFactoryImpl", false, Crosswalker.class.getClassLoader());
+                return true;
+            }
+            catch (final ClassNotFoundException e) {
+                return false;
+            }
+            catch (final LinkageError e) {
+                return false;
+            }
+        }
+    }
+
+    private T walk(final AbstractValidator2 validator, final CrosswalkInput input, T target) throws CrosswalkException {
+        final Schema schema = getSinglePassSchema(validator, !input.isRepeatable());
+        final int maxErrors = errorBudget;
+        final ErrorBudget budget = maxErrors > 0 ? new ErrorBudget(getXmlErrorHandler(), maxErrors) : null;
+        if (validator != null && schema == null) {
+            final long start = System.nanoTime();
+            final int before = getErrorCount();
+            boolean failed = true;
+            try {
+                validateAgainstXsd(validator, input, budget);
+                failed = getErrorCount() > before;
+            }
+            finally {
+                stageCompleted(Stage.VALIDATION, System.nanoTime() - start, failed);
+            }
+            if (budget != null && budget.isExhausted())
+                return null;
+        }
+        final long start = System.nanoTime();
+        T result = null;
+        try {
+            final InputSource source = open(input);
+            try {
+                result = parse(source, target, schema, budget);
+            }
+            finally {
+                if (input.isRepeatable())
+                    CrosswalkInput.close(source);
+            }
+        }
+        finally {
+            stageCompleted(Stage.CROSSWALK, System.nanoTime() - start, result == null);
+        }
+        return result;
+    }
+
+    private int getErrorCount() {
+        final XMLErrorHandler errorHandler = getXmlErrorHandler();
+        return errorHandler.getErrors().size() + errorHandler.getFatalErrors().size();
+    }
+
+    private static InputSource open(final CrosswalkInput input) throws CrosswalkException {
+        try {
+            return input.open();
+        }
+        catch (final FileNotFoundException e) {
+            throw new CrosswalkException(VALIDATE_ERROR_MESSAGE + e.getMessage(), e);
+        }
+        catch (final IOException e) {
+            throw new CrosswalkException(READ_ERROR_MESSAGE + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] readAll(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1)
+            out.write(buffer, 0, n);
+        return out.toByteArray();
+    }
+
+    private static String readAll(final Reader in) throws IOException {
+        final StringBuilder out = new StringBuilder();
+        final char[] buffer = new char[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1)
+            out.append(buffer, 0, n);
+        return out.toString();
+    }
+
+    /**
+     * The handler of notifications of the calling thread. Initially the log level is off. The level can be changed with <code>setReporter(Reporter)</code>.
+     * The handler collects notifications of subsequent calls to the walk methods by the same thread unless reset is called in between. Threads sharing an
+     * instance don't see each others notifications.
      * 
      * @return The handler of notifications.
      */
     public XMLErrorHandler getXmlErrorHandler() {
-        return errorHandler;
+        return errorHandlers.get();
     }
 
     /**
-     * Change the logging level of the error handler.
+     * Replaces the handler of notifications of the calling thread, for example to collect the notifications of a single document.
+     * 
+     * @param errorHandler
+     *        receives the notifications of subsequent walks by the calling thread
+     */
+    public void setXmlErrorHandler(final XMLErrorHandler errorHandler) {
+        errorHandlers.set(errorHandler);
+    }
+
+    /** @return a new handler of notifications with the current logging level */
+    protected XMLErrorHandler newXmlErrorHandler() {
+        return new XMLErrorHandler(reporter);
+    }
+
+    /**
+     * Change the logging level of the error handler of the calling thread and of the handlers that will be created for other threads.
      * 
      * @param reporter
      */
     public void setReporter(Reporter reporter) {
-        errorHandler.setReporter(reporter);
+        this.reporter = reporter;
+        getXmlErrorHandler().setReporter(reporter);
+    }
+
+    /**
+     * Validates against the XSD in the same pass as the crosswalk, rather than reading and parsing the XML twice. Only applies to validators that are a
+     * {@link CachedSchemaValidator}, other validators still do a separate pass. The same errors are reported, but a document that is not well formed
+     * causes a single fatal error instead of one for the validation and one for the crosswalk.
+     * 
+     * @param singlePass
+     *        false by default
+     */
+    public void setSinglePass(final boolean singlePass) {
+        this.singlePass = singlePass;
+    }
+
+    /** @return true if validation is done in the same pass as the crosswalk, when possible */
+    public boolean isSinglePass() {
+        return singlePass;
+    }
+
+    /**
+     * @param listener
+     *        receives notifications about the handlers of subsequent walks by any thread, null (the default) to stop listening
+     */
+    public void setListener(final CrosswalkListener listener) {
+        this.listener = listener;
+    }
+
+    /** @return null if nobody listens */
+    public CrosswalkListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Stops validation and crosswalk of a document once a number of errors and fatal errors is reported, the walk then returns null without reading the
+     * rest of the document. A validator in a separate pass that is not a {@link CachedSchemaValidator} can't be stopped, the crosswalk is skipped when it
+     * exhausted the budget. Sessions always process the whole document.
+     * 
+     * @param maxErrors
+     *        the number of errors that stops a walk, 0 (the default) to walk whole documents
+     */
+    public void setErrorBudget(final int maxErrors) {
+        if (maxErrors < 0)
+            throw new IllegalArgumentException("maxErrors can not be negative: " + maxErrors);
+        this.errorBudget = maxErrors;
     }
 
-    private void validateAgainstXsd(final AbstractValidator2 validator, final InputStream xml) throws CrosswalkException {
+    /** @return the number of errors that stops a walk, 0 if whole documents are walked */
+    public int getErrorBudget() {
+        return errorBudget;
+    }
+
+    /** The parsers that can drive the handlers. */
+    public enum Engine {
+        /** the SAX parser of the platform */
+        SAX,
+        /** a StAX parser, skips the content of elements that handlers ignore */
+        STAX
+    }
+
+    /**
+     * @param engine
+     *        the parser of subsequent walks, {@link Engine#SAX} by default
+     */
+    public void setEngine(final Engine engine) {
+        if (engine == null)
+            throw new IllegalArgumentException("engine can not be null");
+        this.engine = engine;
+    }
+
+    /** @return the parser of the walks */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /** The stages of a walk. */
+    public enum Stage {
+        /** validation against the XSD in a separate pass */
+        VALIDATION,
+        /** the walk of the handlers, including validation in single pass mode */
+        CROSSWALK
+    }
+
+    /**
+     * Notification of a completed stage of a walk, by the thread that walks. Override to measure, the default does nothing.
+     * 
+     * @param stage
+     *        the completed stage
+     * @param nanos
+     *        time spent on the stage
+     * @param failed
+     *        true if the stage reported errors or threw an exception
+     */
+    protected void stageCompleted(final Stage stage, final long nanos, final boolean failed) {}
+
+    /**
+     * The handler map for a single walk. Override when handlers keep state between notifications, each walk then needs its own handler instances to allow
+     * concurrent walks.
+     * 
+     * @return by default the handler map passed on to the constructor
+     * @throws CrosswalkException
+     */
+    protected CrosswalkHandlerMap<T> newHandlerMap() throws CrosswalkException {
+        return handlerMap;
+    }
+
+    private void validateAgainstXsd(final AbstractValidator2 validator, final CrosswalkInput input, final ErrorBudget budget) throws CrosswalkException {
+        if (validator instanceof CachedSchemaValidator) {
+            // reads characters as well as bytes
+            final InputSource source = open(input);
+            try {
+                ((CachedSchemaValidator) validator).validate(budget == null ? getXmlErrorHandler() : budget, source);
+            }
+            catch (XMLException e) {
+                throw new CrosswalkException(VALIDATE_ERROR_MESSAGE + e.getMessage(), e);
+            }
+            finally {
+                CrosswalkInput.close(source);
+            }
+            return;
+        }
+        InputStream xml = null;
+        final int before = getErrorCount();
         try {
-            validator.validate(errorHandler, xml);
+            xml = input.openStream();
+            validator.validate(getXmlErrorHandler(), xml);
+            if (budget != null)
+                budget.spend(getErrorCount() - before);
+        }
+        catch (IOException e) {
+            throw new CrosswalkException(VALIDATE_ERROR_MESSAGE + e.getMessage(), e);
         }
         catch (XMLException e) {
             throw new CrosswalkException(VALIDATE_ERROR_MESSAGE + e.getMessage(), e);
         }
+        finally {
+            closeQuietly(xml);
+        }
+    }
+
+    private static void closeQuietly(final InputStream xml) {
+        if (xml == null)
+            return;
+        try {
+            xml.close();
+        }
+        catch (final IOException e) {
+            // the content has been read
+        }
+    }
+
+    /**
+     * @param once
+     *        true if the content can be read only once, a cached schema is then used in a single pass even if {@link #isSinglePass()} is false
+     */
+    private Schema getSinglePassSchema(final AbstractValidator2 validator, final boolean once) throws CrosswalkException {
+        if (!(singlePass || once) || !(validator instanceof CachedSchemaValidator))
+            return null;
+        try {
+            return ((CachedSchemaValidator) validator).getCompiledSchema();
+        }
+        catch (final SAXException e) {
+            throw new CrosswalkException(VALIDATE_ERROR_MESSAGE + e.getMessage(), e);
+        }
     }
 
-    private T parse(final InputStream source, T target) throws CrosswalkException {
-        getReader().setErrorHandler(errorHandler);
+    private T parse(final InputSource source, T target, final Schema schema, final ErrorBudget budget) throws CrosswalkException {
+        final XMLErrorHandler xmlErrorHandler = getXmlErrorHandler();
+        final ErrorHandler errorHandler = budget == null ? xmlErrorHandler : budget;
+        final XMLReader parser = engine == Engine.STAX ? new StaxReader() : getReader();
+        final XMLReader reader;
+        if (schema == null)
+            reader = parser;
+        else {
+            final ValidatorHandler validatorHandler = schema.newValidatorHandler();
+            validatorHandler.setErrorHandler(errorHandler);
+            reader = new ValidatingFilter(parser, validatorHandler);
+        }
+        reader.setErrorHandler(errorHandler);
 
         // sets itself as ContentHandler of the reader passed into it
-        new CrosswalkHandler<T>(target, getReader(), handlerMap);
+        new CrosswalkHandler<T>(target, reader, newHandlerMap(), listener);
 
         final String msg = "could not parse: ";
         try {
-            getReader().parse(new InputSource(source));
+            reader.parse(source);
         }
         catch (final IOException e) {
             throw new CrosswalkException(msg + e.getMessage(), e);
         }
         catch (final SAXException e) {
+            if (budget != null && budget.isExhausted())
+                return null;
             throw new CrosswalkException(msg + e.getMessage(), e);
         }
-        if (errorHandler.getErrors().size() == 0 && errorHandler.getFatalErrors().size() == 0)
+        finally {
+            parser.setContentHandler(NO_HANDLER);
+            parser.setErrorHandler(NO_HANDLER);
+        }
+        if (xmlErrorHandler.getErrors().size() == 0 && xmlErrorHandler.getFatalErrors().size() == 0)
             return target;
         return null;
     }
 
     private XMLReader getReader() throws CrosswalkException {
-        if (reader != null)
-            return reader;
+        final XMLReader cached = readers.get();
+        if (cached != null)
+            return cached;
         try {
             final SAXParserFactory factory = SAXParserFactory.newInstance();
             factory.setNamespaceAware(true);
-            reader = factory.newSAXParser().getXMLReader();
+            final XMLReader reader = factory.newSAXParser().getXMLReader();
+            readers.set(reader);
             return reader;
         }
         catch (final SAXException e) {
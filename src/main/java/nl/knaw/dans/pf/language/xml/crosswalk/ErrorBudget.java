@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.crosswalk;
+
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * Passes notifications on and stops the parse or validation that reports them once a number of errors and fatal errors is reached, by throwing an
+ * exception from the notification. One instance serves all stages of a single walk.
+ */
+class ErrorBudget implements ErrorHandler {
+    private final ErrorHandler handler;
+    private final int maxErrors;
+    private int errors = 0;
+
+    /**
+     * @param handler
+     *        receives the notifications
+     * @param maxErrors
+     *        the number of errors and fatal errors that stops the walk
+     */
+    ErrorBudget(final ErrorHandler handler, final int maxErrors) {
+        this.handler = handler;
+        this.maxErrors = maxErrors;
+    }
+
+    @Override
+    public void warning(final SAXParseException exception) throws SAXException {
+        handler.warning(exception);
+    }
+
+    @Override
+    public void error(final SAXParseException exception) throws SAXException {
+        handler.error(exception);
+        spend(exception);
+    }
+
+    @Override
+    public void fatalError(final SAXParseException exception) throws SAXException {
+        handler.fatalError(exception);
+        spend(exception);
+    }
+
+    /**
+     * Accounts for errors that were reported without passing this budget, for example by a validator that does not accept an {@link ErrorHandler}.
+     * 
+     * @param count
+     *        the number of errors
+     */
+    void spend(final int count) {
+        errors += count;
+    }
+
+    /** @return true if the walk should stop */
+    boolean isExhausted() {
+        return errors >= maxErrors;
+    }
+
+    private void spend(final SAXParseException exception) throws SAXParseException {
+        if (++errors >= maxErrors)
+            // a SAXParseException, a validator takes it as reported already
+            throw new SAXParseException("stopped after " + errors + " errors", exception.getPublicId(), exception.getSystemId(),
+                    exception.getLineNumber(), exception.getColumnNumber(), exception);
+    }
+}
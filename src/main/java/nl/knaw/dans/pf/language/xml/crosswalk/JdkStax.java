@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.crosswalk;
+
+import java.util.function.Supplier;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+
+/**
+ * Creates the StAX factories of the JDK, whatever other StAX implementation is on the class path, for example the one of {@link CrosswalkSession}. The
+ * factory methods of StAX look up the service files of the class path first.
+ */
+public final class JdkStax {
+    private JdkStax() {}
+
+    /** @return a new input factory of the JDK */
+    public static XMLInputFactory newInputFactory() {
+        return withoutServiceFiles(XMLInputFactory::newInstance);
+    }
+
+    /** @return a new output factory of the JDK */
+    public static XMLOutputFactory newOutputFactory() {
+        return withoutServiceFiles(XMLOutputFactory::newInstance);
+    }
+
+    private static <F> F withoutServiceFiles(final Supplier<F> factory) {
+        final Thread thread = Thread.currentThread();
+        final ClassLoader contextClassLoader = thread.getContextClassLoader();
+        // the service files of the class path are not visible to the parent of the system class loader
+        thread.setContextClassLoader(ClassLoader.getSystemClassLoader().getParent());
+        try {
+            return factory.get();
+        }
+        finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.crosswalk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+/**
+ * Drives the content handler with the events of a {@link XMLStreamReader}, so the {@link CrosswalkHandler}s run unchanged on a StAX parser. Taking and
+ * returning control only replaces a field. When a handler takes control and {@link CrosswalkHandler#isContentIgnored() ignores the content}, the nested
+ * elements and text are skipped without notifications.
+ */
+class StaxReader extends XMLFilterImpl {
+    private static final XMLInputFactory FACTORY = newFactory();
+
+    private final AttributesImpl attributes = new AttributesImpl();
+    private XMLStreamReader in;
+
+    /** depth within a skipped element, zero if not skipping */
+    private int skipped;
+
+    private final Locator locator = new Locator() {
+        @Override
+        public String getPublicId() {
+            final Location location = in.getLocation();
+            return location == null ? null : location.getPublicId();
+        }
+
+        @Override
+        public String getSystemId() {
+            final Location location = in.getLocation();
+            return location == null ? null : location.getSystemId();
+        }
+
+        @Override
+        public int getLineNumber() {
+            final Location location = in.getLocation();
+            return location == null ? -1 : location.getLineNumber();
+        }
+
+        @Override
+        public int getColumnNumber() {
+            final Location location = in.getLocation();
+            return location == null ? -1 : location.getColumnNumber();
+        }
+    };
+
+    /** The implementation of the JDK, see {@link JdkStax}. */
+    private static XMLInputFactory newFactory() {
+        final XMLInputFactory factory = JdkStax.newInputFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        return factory;
+    }
+
+    @Override
+    public void parse(final String systemId) throws IOException, SAXException {
+        parse(new InputSource(systemId));
+    }
+
+    @Override
+    public void parse(final InputSource input) throws IOException, SAXException {
+        InputStream opened = null;
+        XMLStreamReader reader = null;
+        try {
+            try {
+                if (input.getCharacterStream() != null)
+                    reader = FACTORY.createXMLStreamReader(input.getSystemId(), input.getCharacterStream());
+                else if (input.getByteStream() != null && input.getEncoding() != null)
+                    reader = FACTORY.createXMLStreamReader(input.getByteStream(), input.getEncoding());
+                else if (input.getByteStream() != null)
+                    reader = FACTORY.createXMLStreamReader(input.getSystemId(), input.getByteStream());
+                else {
+                    opened = new URL(input.getSystemId()).openStream();
+                    reader = FACTORY.createXMLStreamReader(input.getSystemId(), opened);
+                }
+            }
+            catch (final XMLStreamException e) {
+                throw fatalError(e);
+            }
+            parse(reader);
+        }
+        finally {
+            close(reader);
+            if (opened != null)
+                opened.close();
+        }
+    }
+
+    /**
+     * Notifies the content handler of all events of the reader, starting with its current event.
+     * 
+     * @param reader
+     *        positioned at the start of the document
+     */
+    void parse(final XMLStreamReader reader) throws SAXException {
+        start(reader);
+        try {
+            int event = reader.getEventType();
+            handle(event);
+            while (event != XMLStreamConstants.END_DOCUMENT) {
+                event = reader.next();
+                handle(event);
+            }
+        }
+        catch (final XMLStreamException e) {
+            throw fatalError(e);
+        }
+    }
+
+    /**
+     * Prepares for the events of a reader that are passed on by {@link #handle(int)}.
+     * 
+     * @param reader
+     *        the source of the events
+     */
+    void start(final XMLStreamReader reader) {
+        in = reader;
+        skipped = 0;
+    }
+
+    /**
+     * Notifies the content handler of an event.
+     * 
+     * @param event
+     *        the current event of the reader passed to {@link #start(XMLStreamReader)}
+     * @throws SAXException
+     *         thrown by the handlers
+     */
+    void handle(final int event) throws SAXException {
+        final ContentHandler handler = getContentHandler();
+        switch (event) {
+        case XMLStreamConstants.START_DOCUMENT:
+            handler.setDocumentLocator(locator);
+            handler.startDocument();
+            break;
+        case XMLStreamConstants.END_DOCUMENT:
+            handler.endDocument();
+            break;
+        case XMLStreamConstants.START_ELEMENT:
+            if (skipped > 0)
+                skipped++;
+            else
+                startElement(handler);
+            break;
+        case XMLStreamConstants.END_ELEMENT:
+            if (skipped > 1)
+                skipped--;
+            else {
+                skipped = 0;
+                endElement(handler);
+            }
+            break;
+        case XMLStreamConstants.CHARACTERS:
+        case XMLStreamConstants.CDATA:
+            if (skipped == 0)
+                handler.characters(in.getTextCharacters(), in.getTextStart(), in.getTextLength());
+            break;
+        case XMLStreamConstants.SPACE:
+            if (skipped == 0)
+                handler.ignorableWhitespace(in.getTextCharacters(), in.getTextStart(), in.getTextLength());
+            break;
+        case XMLStreamConstants.PROCESSING_INSTRUCTION:
+            if (skipped == 0)
+                handler.processingInstruction(in.getPITarget(), in.getPIData());
+            break;
+        case XMLStreamConstants.ENTITY_REFERENCE:
+            if (skipped == 0)
+                handler.skippedEntity(in.getLocalName());
+            break;
+        default:
+            // comments, DTD and such are of no interest to the handlers
+        }
+    }
+
+    private void startElement(final ContentHandler handler) throws SAXException {
+        final int namespaces = in.getNamespaceCount();
+        for (int i = 0; i < namespaces; i++)
+            handler.startPrefixMapping(emptyIfNull(in.getNamespacePrefix(i)), emptyIfNull(in.getNamespaceURI(i)));
+        attributes.clear();
+        final int count = in.getAttributeCount();
+        for (int i = 0; i < count; i++) {
+            final String localName = in.getAttributeLocalName(i);
+            attributes.addAttribute(emptyIfNull(in.getAttributeNamespace(i)), localName, qName(in.getAttributePrefix(i), localName),
+                    in.getAttributeType(i), in.getAttributeValue(i));
+        }
+        final String localName = in.getLocalName();
+        handler.startElement(emptyIfNull(in.getNamespaceURI()), localName, qName(in.getPrefix(), localName), attributes);
+
+        // the handlers replace the content handler on the fly
+        final ContentHandler current = getContentHandler();
+        if (current instanceof CrosswalkHandler && ((CrosswalkHandler<?>) current).ignoresContent())
+            skipped = 1;
+    }
+
+    private void endElement(final ContentHandler handler) throws SAXException {
+        final String localName = in.getLocalName();
+        handler.endElement(emptyIfNull(in.getNamespaceURI()), localName, qName(in.getPrefix(), localName));
+        final int namespaces = in.getNamespaceCount();
+        for (int i = 0; i < namespaces; i++)
+            getContentHandler().endPrefixMapping(emptyIfNull(in.getNamespacePrefix(i)));
+    }
+
+    /**
+     * Reports a problem of the parser as a fatal error, like a SAX parser does.
+     * 
+     * @return the exception to throw
+     */
+    SAXParseException fatalError(final XMLStreamException e) throws SAXException {
+        final Location location = e.getLocation();
+        final SAXParseException exception;
+        if (location == null)
+            exception = new SAXParseException(e.getMessage(), null, null, -1, -1, e);
+        else
+            exception = new SAXParseException(e.getMessage(), location.getPublicId(), location.getSystemId(), location.getLineNumber(),
+                    location.getColumnNumber(), e);
+        final ErrorHandler errorHandler = getErrorHandler();
+        if (errorHandler != null)
+            errorHandler.fatalError(exception);
+        return exception;
+    }
+
+    private static void close(final XMLStreamReader reader) {
+        if (reader == null)
+            return;
+        try {
+            reader.close();
+        }
+        catch (final XMLStreamException e) {
+            // the underlying input is closed by the caller
+        }
+    }
+
+    private static String qName(final String prefix, final String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+    private static String emptyIfNull(final String s) {
+        return s == null ? "" : s;
+    }
+}
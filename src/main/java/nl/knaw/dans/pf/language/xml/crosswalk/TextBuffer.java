@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.crosswalk;
+
+import java.util.Arrays;
+
+/**
+ * Collects the characters of an element for a single handler. Unlike a {@link StringBuffer} it is not synchronized, it is cleared rather than replaced
+ * for the next element and the string is created at most once per element. The content is only valid until the next notification of the SAX parser.
+ */
+final class TextBuffer implements CharSequence {
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** clearing a larger buffer releases it, an exceptionally long text should not occupy memory for the rest of the walk */
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private char[] chars = new char[INITIAL_CAPACITY];
+    private int length;
+    private String string;
+
+    void clear() {
+        if (chars.length > MAX_RETAINED_CAPACITY)
+            chars = new char[INITIAL_CAPACITY];
+        length = 0;
+        string = null;
+    }
+
+    void append(final char[] ch, final int start, final int count) {
+        if (count == 0)
+            return;
+        final int required = length + count;
+        if (required > chars.length)
+            chars = Arrays.copyOf(chars, Math.max(required, chars.length * 2));
+        System.arraycopy(ch, start, chars, length, count);
+        length = required;
+        string = null;
+    }
+
+    /** @return true if the content is empty or consists of white space only */
+    boolean isBlank() {
+        for (int i = 0; i < length; i++) {
+            if (!Character.isWhitespace(chars[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /** @return the size of the backing array */
+    int capacity() {
+        return chars.length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= length)
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        if (start < 0 || end > length || start > end)
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        return new String(chars, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        if (string == null)
+            string = new String(chars, 0, length);
+        return string;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.crosswalk;
+
+import javax.xml.validation.ValidatorHandler;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.XMLFilterImpl;
+
+/**
+ * Passes the content events of a parse both to a validator and to the content handler of the filter, so a document is validated and crosswalked in a
+ * single pass. The {@link CrosswalkHandler}s take and return control through {@link #setContentHandler(org.xml.sax.ContentHandler)} as usual, the
+ * validator sees all events.
+ */
+class ValidatingFilter extends XMLFilterImpl {
+    private final ValidatorHandler validator;
+
+    ValidatingFilter(final XMLReader parent, final ValidatorHandler validator) {
+        super(parent);
+        this.validator = validator;
+    }
+
+    @Override
+    public void setDocumentLocator(final Locator locator) {
+        validator.setDocumentLocator(locator);
+        super.setDocumentLocator(locator);
+    }
+
+    @Override
+    public void startDocument() throws SAXException {
+        validator.startDocument();
+        super.startDocument();
+    }
+
+    @Override
+    public void endDocument() throws SAXException {
+        validator.endDocument();
+        super.endDocument();
+    }
+
+    @Override
+    public void startPrefixMapping(final String prefix, final String uri) throws SAXException {
+        validator.startPrefixMapping(prefix, uri);
+        super.startPrefixMapping(prefix, uri);
+    }
+
+    @Override
+    public void endPrefixMapping(final String prefix) throws SAXException {
+        validator.endPrefixMapping(prefix);
+        super.endPrefixMapping(prefix);
+    }
+
+    @Override
+    public void startElement(final String uri, final String localName, final String qName, final Attributes atts) throws SAXException {
+        validator.startElement(uri, localName, qName, atts);
+        super.startElement(uri, localName, qName, atts);
+    }
+
+    @Override
+    public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+        validator.endElement(uri, localName, qName);
+        super.endElement(uri, localName, qName);
+    }
+
+    @Override
+    public void characters(final char[] ch, final int start, final int length) throws SAXException {
+        validator.characters(ch, start, length);
+        super.characters(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(final char[] ch, final int start, final int length) throws SAXException {
+        validator.ignorableWhitespace(ch, start, length);
+        super.ignorableWhitespace(ch, start, length);
+    }
+
+    @Override
+    public void processingInstruction(final String target, final String data) throws SAXException {
+        validator.processingInstruction(target, data);
+        super.processingInstruction(target, data);
+    }
+
+    @Override
+    public void skippedEntity(final String name) throws SAXException {
+        validator.skippedEntity(name);
+        super.skippedEntity(name);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.schema;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.Validator;
+
+import nl.knaw.dans.pf.language.xml.exc.XMLException;
+import nl.knaw.dans.pf.language.xml.validation.AbstractValidator2;
+import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler;
+
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+/**
+ * A validator that compiles its schemas once per process, see {@link SchemaCache}. Validating a document then only costs the validation pass.
+ */
+public class CachedSchemaValidator extends AbstractValidator2 {
+    private final String[] xsds;
+
+    /**
+     * @param xsds
+     *        locations of the schemas
+     */
+    public CachedSchemaValidator(final String... xsds) {
+        super(xsds);
+        this.xsds = xsds == null ? null : xsds.clone();
+    }
+
+    /**
+     * @return the grammar shared with all other validators for the same schemas
+     * @throws SAXException
+     *         if the schemas could not be loaded or compiled
+     */
+    public Schema getCompiledSchema() throws SAXException {
+        return SchemaCache.get(xsds);
+    }
+
+    @Override
+    public void validate(final XMLErrorHandler handler, final InputStream xml) throws XMLException {
+        validate(handler, new InputSource(xml));
+    }
+
+    /**
+     * Validates bytes or characters.
+     * 
+     * @param handler
+     *        receives the notifications, may stop the validation by throwing a {@link SAXParseException}
+     * @param xml
+     *        the content to validate
+     * @throws XMLException
+     *         if the schemas could not be compiled or the content could not be read
+     */
+    public void validate(final ErrorHandler handler, final InputSource xml) throws XMLException {
+        final Validator validator;
+        try {
+            validator = getCompiledSchema().newValidator();
+        }
+        catch (final SAXException e) {
+            throw new XMLException("could not compile schemas: " + e.getMessage(), e);
+        }
+        validator.setErrorHandler(handler);
+        try {
+            validator.validate(new SAXSource(xml));
+        }
+        catch (final SAXParseException e) {
+            // already reported to the handler
+        }
+        catch (final SAXException e) {
+            throw new XMLException("could not validate: " + e.getMessage(), e);
+        }
+        catch (final IOException e) {
+            throw new XMLException("could not read: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.schema;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+/**
+ * Process wide cache of compiled grammars, keyed by the list of schema locations. A {@link Schema} is immutable and thread safe, so once compiled it is
+ * shared by all validators. Concurrent requests for the same list wait for a single compilation. A failed compilation is not cached, the next request
+ * tries again. Schemas are loaded from the {@link SchemaCatalog#getDefault() default catalog} when available.
+ */
+public final class SchemaCache {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaCache.class);
+
+    private static final ConcurrentMap<List<String>, FutureTask<Schema>> schemas = new ConcurrentHashMap<List<String>, FutureTask<Schema>>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private SchemaCache() {}
+
+    /**
+     * @param xsds
+     *        locations of the schemas
+     * @return the compiled grammar of the schemas together
+     * @throws SAXException
+     *         if the schemas could not be loaded or compiled
+     */
+    public static Schema get(final String... xsds) throws SAXException {
+        if (xsds == null || xsds.length == 0)
+            throw new SAXException("no schemas specified");
+        final List<String> key = Arrays.asList(xsds.clone());
+        FutureTask<Schema> task = schemas.get(key);
+        if (task == null) {
+            final FutureTask<Schema> newTask = new FutureTask<Schema>(() -> compile(key));
+            task = schemas.putIfAbsent(key, newTask);
+            if (task == null) {
+                misses.incrementAndGet();
+                task = newTask;
+                task.run();
+            }
+            else
+                hits.incrementAndGet();
+        }
+        else
+            hits.incrementAndGet();
+        try {
+            return task.get();
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SAXException("interrupted while waiting for the compilation of " + key, e);
+        }
+        catch (final ExecutionException e) {
+            schemas.remove(key, task);
+            if (e.getCause() instanceof SAXException)
+                throw (SAXException) e.getCause();
+            throw new SAXException("could not compile " + key + ": " + e.getCause(), e);
+        }
+    }
+
+    /** @return the number of requests served by a compiled or compiling grammar */
+    public static long getHits() {
+        return hits.get();
+    }
+
+    /** @return the number of compilations */
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    /** Forgets all compiled grammars, for example after the schemas have been changed. */
+    public static void clear() {
+        schemas.clear();
+    }
+
+    private static Schema compile(final List<String> xsds) throws SAXException {
+        final long start = System.currentTimeMillis();
+        final Source[] sources = new Source[xsds.size()];
+        for (int i = 0; i < sources.length; i++)
+            sources[i] = new StreamSource(SchemaCatalog.getDefault().resolve(xsds.get(i)));
+        // a factory is not thread safe, the compiled schema is
+        final SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        factory.setResourceResolver(SchemaCatalog.getDefault());
+        final Schema schema = factory.newSchema(sources);
+        logger.info("compiled {} in {} ms", xsds, System.currentTimeMillis() - start);
+        return schema;
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.schema;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+/**
+ * Maps remote schema locations to local copies, so loading schemas does not depend on the network. A location <code>scheme://host/path</code> is looked
+ * up as <code>host/path</code> in the override directory, if any, and then as the class path resource <code>easy-schemas/host/path</code>. The jar bundles
+ * the schemas published under <code>easy.dans.knaw.nl/schemas/</code> and GML 3.1.1 and 3.2.1 of <code>schemas.opengis.net</code> with the xlink and
+ * ISO 19139 schemas they import, so the DDM schemas compile without network access. Other schemas can be put into the override directory. Locations
+ * without a local copy are left alone.
+ */
+public class SchemaCatalog implements LSResourceResolver, EntityResolver {
+    /** System property with the override directory of the default catalog. */
+    public static final String OVERRIDE_DIR_PROPERTY = "easy.schemas.dir";
+    static final String RESOURCE_DIR = "easy-schemas/";
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaCatalog.class);
+    private static final SchemaCatalog DEFAULT = new SchemaCatalog(overrideDirFromProperty());
+
+    private final File overrideDir;
+
+    /**
+     * @param overrideDir
+     *        takes precedence over the bundled schemas, null to use only the bundled schemas
+     */
+    public SchemaCatalog(final File overrideDir) {
+        this.overrideDir = overrideDir;
+    }
+
+    /** @return the catalog with the override directory of the system property {@value #OVERRIDE_DIR_PROPERTY} */
+    public static SchemaCatalog getDefault() {
+        return DEFAULT;
+    }
+
+    private static File overrideDirFromProperty() {
+        final String dir = System.getProperty(OVERRIDE_DIR_PROPERTY);
+        return dir == null ? null : new File(dir);
+    }
+
+    /**
+     * @param location
+     *        a schema location
+     * @return the location of the local copy, or the location itself if there is no local copy
+     */
+    public String resolve(final String location) {
+        final URL local = findLocal(location);
+        if (local == null)
+            return location;
+        logger.debug("resolved {} to {}", location, local);
+        return local.toExternalForm();
+    }
+
+    @Override
+    public LSInput resolveResource(final String type, final String namespaceURI, final String publicId, final String systemId, final String baseURI) {
+        final URL local = findLocal(absolute(systemId, baseURI));
+        if (local == null)
+            return null;
+        return new LocalInput(publicId, local.toExternalForm(), baseURI);
+    }
+
+    @Override
+    public InputSource resolveEntity(final String publicId, final String systemId) {
+        final URL local = findLocal(systemId);
+        if (local == null)
+            return null;
+        final InputSource inputSource = new InputSource(local.toExternalForm());
+        inputSource.setPublicId(publicId);
+        return inputSource;
+    }
+
+    private static String absolute(final String systemId, final String baseURI) {
+        if (systemId == null || baseURI == null)
+            return systemId;
+        try {
+            return new URI(baseURI).resolve(new URI(systemId)).toString();
+        }
+        catch (final URISyntaxException e) {
+            return systemId;
+        }
+        catch (final IllegalArgumentException e) {
+            return systemId;
+        }
+    }
+
+    private URL findLocal(final String location) {
+        final String relative = toRelativePath(location);
+        if (relative == null)
+            return null;
+        if (overrideDir != null) {
+            final File file = new File(overrideDir, relative);
+            if (file.isFile()) {
+                try {
+                    return file.toURI().toURL();
+                }
+                catch (final MalformedURLException e) {
+                    logger.warn("can not use {}: {}", file, e.getMessage());
+                }
+            }
+        }
+        return SchemaCatalog.class.getClassLoader().getResource(RESOURCE_DIR + relative);
+    }
+
+    /** @return host/path of a http(s) location, null for other locations */
+    private static String toRelativePath(final String location) {
+        if (location == null)
+            return null;
+        final int start;
+        if (location.startsWith("https://"))
+            start = "https://".length();
+        else if (location.startsWith("http://"))
+            start = "http://".length();
+        else
+            return null;
+        final String relative = location.substring(start);
+        if (relative.contains("..") || relative.indexOf('/') < 0)
+            return null;
+        return relative;
+    }
+
+    /** Refers the parser to the local copy. */
+    private static class LocalInput implements LSInput {
+        private String publicId;
+        private String systemId;
+        private String baseURI;
+
+        LocalInput(final String publicId, final String systemId, final String baseURI) {
+            this.publicId = publicId;
+            this.systemId = systemId;
+            this.baseURI = baseURI;
+        }
+
+        @Override
+        public Reader getCharacterStream() {
+            return null;
+        }
+
+        @Override
+        public void setCharacterStream(final Reader characterStream) {}
+
+        @Override
+        public InputStream getByteStream() {
+            return null;
+        }
+
+        @Override
+        public void setByteStream(final InputStream byteStream) {}
+
+        @Override
+        public String getStringData() {
+            return null;
+        }
+
+        @Override
+        public void setStringData(final String stringData) {}
+
+        @Override
+        public String getSystemId() {
+            return systemId;
+        }
+
+        @Override
+        public void setSystemId(final String systemId) {
+            this.systemId = systemId;
+        }
+
+        @Override
+        public String getPublicId() {
+            return publicId;
+        }
+
+        @Override
+        public void setPublicId(final String publicId) {
+            this.publicId = publicId;
+        }
+
+        @Override
+        public String getBaseURI() {
+            return baseURI;
+        }
+
+        @Override
+        public void setBaseURI(final String baseURI) {
+            this.baseURI = baseURI;
+        }
+
+        @Override
+        public String getEncoding() {
+            return null;
+        }
+
+        @Override
+        public void setEncoding(final String encoding) {}
+
+        @Override
+        public boolean getCertifiedText() {
+            return false;
+        }
+
+        @Override
+        public void setCertifiedText(final boolean certifiedText) {}
+    }
+}
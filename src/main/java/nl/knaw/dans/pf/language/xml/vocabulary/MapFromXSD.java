@@ -15,43 +15,142 @@
  */
 package nl.knaw.dans.pf.language.xml.vocabulary;
 
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import nl.knaw.dans.pf.language.xml.schema.SchemaCatalog;
 
 import org.dom4j.DocumentException;
-import org.dom4j.Node;
-import org.dom4j.io.SAXReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
+/**
+ * The enumerations of an XSD with the appinfo and documentation of their annotations. The XSD is read in a single streaming pass. The maps can't be
+ * modified and may be shared by any number of threads.
+ */
 public class MapFromXSD {
-    private final Map<String, String> enum2appInfo = new HashMap<String, String>();
-    private final Map<String, String> appInfo2doc = new HashMap<String, String>();
-    private final Map<String, String> enum2doc = new HashMap<String, String>();
+    private final Map<String, String> enum2appInfo;
+    private final Map<String, String> appInfo2doc;
+    private final Map<String, String> enum2doc;
+    private final Map<String, String> appInfo2enum;
 
     private static final Logger logger = LoggerFactory.getLogger(MapFromXSD.class);
 
     public MapFromXSD(final String xsd) throws DocumentException {
-        for (final Node enumerationNode : readEnumerationNodes(xsd)) {
-            final String key = enumerationNode.valueOf("@value").trim();
-            final Node appinfoNode = (Node) enumerationNode.selectNodes(".//xs:appinfo").iterator().next();
-            final String appInfoText = appinfoNode.getText().trim();
-            final Node docNode = (Node) enumerationNode.selectNodes(".//xs:documentation").iterator().next();
-            final String docText = docNode.getText().trim();
-            getEnum2appInfo().put(key, appInfoText);
-            getAppInfo2doc().put(appInfoText, docText);
-            getEnum2doc().put(key, docText);
+        final EnumerationHandler handler = new EnumerationHandler();
+        try {
+            final SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            final XMLReader reader = factory.newSAXParser().getXMLReader();
+            reader.setContentHandler(handler);
+            reader.setEntityResolver(SchemaCatalog.getDefault());
+            reader.parse(new InputSource(SchemaCatalog.getDefault().resolve(xsd)));
+        }
+        catch (final ParserConfigurationException e) {
+            throw new DocumentException("could not create a parser for " + xsd + ": " + e.getMessage(), e);
+        }
+        catch (final SAXException e) {
+            throw new DocumentException("could not read " + xsd + ": " + e.getMessage(), e);
         }
+        catch (final IOException e) {
+            throw new DocumentException("could not read " + xsd + ": " + e.getMessage(), e);
+        }
+        enum2appInfo = Collections.unmodifiableMap(handler.enum2appInfo);
+        appInfo2doc = Collections.unmodifiableMap(handler.appInfo2doc);
+        enum2doc = Collections.unmodifiableMap(handler.enum2doc);
+        appInfo2enum = invert(enum2appInfo);
         logger.debug("keys: " + Arrays.toString(getEnum2appInfo().keySet().toArray()));
         logger.debug("values: " + Arrays.toString(getEnum2appInfo().values().toArray()));
     }
 
-    private Node[] readEnumerationNodes(final String xsd) throws DocumentException {
-        @SuppressWarnings("unchecked")
-        final List<Object> nodes = new SAXReader().read(xsd).selectNodes("//xs:enumeration");
-        return (Node[]) nodes.toArray(new Node[nodes.size()]);
+    /** A vocabulary read from a {@link VocabularySnapshot}. */
+    MapFromXSD(final Map<String, String> enum2appInfo, final Map<String, String> appInfo2doc, final Map<String, String> enum2doc) {
+        this.enum2appInfo = Collections.unmodifiableMap(new HashMap<String, String>(enum2appInfo));
+        this.appInfo2doc = Collections.unmodifiableMap(new HashMap<String, String>(appInfo2doc));
+        this.enum2doc = Collections.unmodifiableMap(new HashMap<String, String>(enum2doc));
+        this.appInfo2enum = invert(this.enum2appInfo);
+    }
+
+    /** the first enumeration in alphabetical order wins if several have the same appinfo */
+    private static Map<String, String> invert(final Map<String, String> enum2appInfo) {
+        final Map<String, String> result = new HashMap<String, String>();
+        for (final Map.Entry<String, String> entry : new TreeMap<String, String>(enum2appInfo).entrySet())
+            result.putIfAbsent(entry.getValue(), entry.getKey());
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Collects per xs:enumeration the text of its first xs:appinfo and its first xs:documentation. Like the text of a dom4j element, the text of nested
+     * elements is not included.
+     */
+    private static class EnumerationHandler extends DefaultHandler {
+        private final Map<String, String> enum2appInfo = new HashMap<String, String>();
+        private final Map<String, String> appInfo2doc = new HashMap<String, String>();
+        private final Map<String, String> enum2doc = new HashMap<String, String>();
+
+        private final StringBuilder text = new StringBuilder();
+        private int depth;
+        private String key;
+        private String appInfo;
+        private String doc;
+        /** depth of the appinfo or documentation element being collected, zero if none */
+        private int textDepth;
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) throws SAXException {
+            depth++;
+            if (!XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(uri))
+                return;
+            if ("enumeration".equals(localName)) {
+                final String value = attributes.getValue("value");
+                key = value == null ? "" : value.trim();
+                appInfo = null;
+                doc = null;
+            }
+            else if (key != null && textDepth == 0 && (("appinfo".equals(localName) && appInfo == null) || ("documentation".equals(localName) && doc == null))) {
+                textDepth = depth;
+                text.setLength(0);
+            }
+        }
+
+        @Override
+        public void characters(final char[] ch, final int start, final int length) {
+            if (textDepth != 0 && depth == textDepth)
+                text.append(ch, start, length);
+        }
+
+        @Override
+        public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+            if (textDepth == depth) {
+                textDepth = 0;
+                if ("appinfo".equals(localName))
+                    appInfo = text.toString().trim();
+                else
+                    doc = text.toString().trim();
+            }
+            else if (key != null && XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(uri) && "enumeration".equals(localName)) {
+                if (appInfo == null || doc == null)
+                    throw new SAXException("enumeration [" + key + "] has no " + (appInfo == null ? "appinfo" : "documentation"));
+                enum2appInfo.put(key, appInfo);
+                appInfo2doc.put(appInfo, doc);
+                enum2doc.put(key, doc);
+                key = null;
+            }
+            depth--;
+        }
     }
 
     public Map<String, String> getEnum2appInfo() {
@@ -65,4 +164,9 @@ public class MapFromXSD {
     public Map<String, String> getEnum2doc() {
         return enum2doc;
     }
+
+    /** @return the reverse of {@link #getEnum2appInfo()}, to write a value of the vocabulary */
+    public Map<String, String> getAppInfo2enum() {
+        return appInfo2enum;
+    }
 }
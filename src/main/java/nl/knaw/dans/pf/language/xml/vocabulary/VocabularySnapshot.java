@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.vocabulary;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import nl.knaw.dans.pf.language.xml.schema.SchemaCatalog;
+
+import org.dom4j.DocumentException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the maps of a {@link MapFromXSD} in a compact file, so later runs don't have to parse the XSD. Snapshots are only used when the system property
+ * {@value #DIR_PROPERTY} names their directory, without it every load reads the XSD and nothing is written. A snapshot is keyed on the size and the time
+ * of the last modification of the XSD as resolved by the {@link SchemaCatalog}, so checking it doesn't read the XSD. An edit that keeps both goes
+ * unnoticed until one of them changes. A missing, stale or unreadable snapshot is replaced by a new one read from the XSD. Snapshots can be written in
+ * advance with {@link #main(String...)}.
+ */
+public final class VocabularySnapshot {
+    /** System property with the directory of the snapshots, snapshots are not used without it. */
+    public static final String DIR_PROPERTY = "easy.vocabulary.dir";
+
+    private static final Logger logger = LoggerFactory.getLogger(VocabularySnapshot.class);
+    private static final int MAGIC = 0x45564f43;
+    private static final int FORMAT_VERSION = 3;
+
+    private VocabularySnapshot() {}
+
+    /**
+     * Writes the snapshots of the XSDs to the directory of the system property {@value #DIR_PROPERTY}, for example during a build or an installation.
+     * 
+     * @param xsds
+     *        locations of the XSDs
+     */
+    public static void main(final String... xsds) throws DocumentException, IOException {
+        for (final String xsd : xsds) {
+            final File file = getFile(xsd);
+            if (file == null)
+                throw new IOException("system property " + DIR_PROPERTY + " is not set");
+            final String fingerprint = fingerprint(SchemaCatalog.getDefault().resolve(xsd));
+            if (fingerprint == null)
+                throw new IOException("could not read " + xsd);
+            write(file, new MapFromXSD(xsd), fingerprint);
+            logger.info("wrote {}", file);
+        }
+    }
+
+    /**
+     * @param xsd
+     *        location of an XSD with enumerations
+     * @return the maps of the snapshot if it is up to date, otherwise the maps read from the XSD
+     * @throws DocumentException
+     *         if the XSD had to be read and could not be parsed
+     */
+    public static MapFromXSD load(final String xsd) throws DocumentException {
+        final File file = getFile(xsd);
+        if (file == null)
+            return new MapFromXSD(xsd);
+        final String fingerprint = fingerprint(SchemaCatalog.getDefault().resolve(xsd));
+        if (fingerprint == null)
+            return new MapFromXSD(xsd);
+        if (file.isFile()) {
+            try {
+                final MapFromXSD snapshot = read(file, fingerprint);
+                if (snapshot != null)
+                    return snapshot;
+            }
+            catch (final IOException e) {
+                logger.warn("could not read vocabulary snapshot {}: {}", file, e.getMessage());
+            }
+        }
+        final MapFromXSD vocabulary = new MapFromXSD(xsd);
+        try {
+            write(file, vocabulary, fingerprint);
+        }
+        catch (final IOException e) {
+            logger.warn("could not write vocabulary snapshot {}: {}", file, e.getMessage());
+        }
+        return vocabulary;
+    }
+
+    /** @return the file of the snapshot of the XSD, null if the system property {@value #DIR_PROPERTY} is not set */
+    public static File getFile(final String xsd) {
+        final String dir = System.getProperty(DIR_PROPERTY);
+        if (dir == null)
+            return null;
+        return new File(dir, xsd.replaceAll("[^A-Za-z0-9.-]", "_") + ".snapshot");
+    }
+
+    /** @return the size and the time of the last modification, null if they are unknown */
+    private static String fingerprint(final String location) {
+        try {
+            if (location.startsWith("file:")) {
+                final Path path = Paths.get(URI.create(location));
+                return Files.size(path) + "/" + Files.getLastModifiedTime(path).toMillis();
+            }
+            final URLConnection connection = new URL(location).openConnection();
+            // a cached jar connection keeps the jar file open
+            connection.setUseCaches(false);
+            if (connection instanceof HttpURLConnection)
+                ((HttpURLConnection) connection).setRequestMethod("HEAD");
+            try {
+                final long size = connection.getContentLengthLong();
+                final long lastModified = connection.getLastModified();
+                if (size < 0 || lastModified == 0)
+                    return null;
+                return size + "/" + lastModified;
+            }
+            finally {
+                if (connection instanceof HttpURLConnection)
+                    ((HttpURLConnection) connection).disconnect();
+                else if (connection instanceof JarURLConnection)
+                    // releases the jar file
+                    connection.getInputStream().close();
+            }
+        }
+        catch (final IOException e) {
+            logger.debug("no vocabulary snapshot for {}: {}", location, e.getMessage());
+            return null;
+        }
+        catch (final IllegalArgumentException e) {
+            logger.debug("no vocabulary snapshot for {}: {}", location, e.getMessage());
+            return null;
+        }
+    }
+
+    /** @return null if the snapshot has another format or fingerprint */
+    private static MapFromXSD read(final File file, final String fingerprint) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !fingerprint.equals(readString(in)))
+                return null;
+            final Map<String, String> enum2appInfo = readMap(in);
+            final Map<String, String> appInfo2doc = readMap(in);
+            final Map<String, String> enum2doc = readMap(in);
+            return new MapFromXSD(enum2appInfo, appInfo2doc, enum2doc);
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    private static void write(final File file, final MapFromXSD vocabulary, final String fingerprint) throws IOException {
+        final File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs())
+            throw new IOException("could not create " + dir);
+        // other processes may read the snapshot meanwhile
+        final File temp = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, fingerprint);
+                writeMap(out, vocabulary.getEnum2appInfo());
+                writeMap(out, vocabulary.getAppInfo2doc());
+                writeMap(out, vocabulary.getEnum2doc());
+            }
+            finally {
+                out.close();
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            temp.delete();
+        }
+    }
+
+    private static Map<String, String> readMap(final DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        final Map<String, String> map = new HashMap<String, String>(size * 4 / 3 + 1);
+        for (int i = 0; i < size; i++)
+            map.put(readString(in), readString(in));
+        return map;
+    }
+
+    private static void writeMap(final DataOutputStream out, final Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (final Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    /** unlike writeUTF not limited to 64K bytes */
+    private static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(final DataOutputStream out, final String s) throws IOException {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
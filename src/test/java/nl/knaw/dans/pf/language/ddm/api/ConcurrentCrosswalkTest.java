@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import nl.knaw.dans.pf.language.emd.EasyMetadata;
+import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler;
+import org.apache.commons.io.FileUtils;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static nl.knaw.dans.pf.language.ddm.api.Ddm2EmdFixtures.inputFiles;
+import static nl.knaw.dans.pf.language.ddm.api.Ddm2EmdFixtures.marshal;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+
+/** One crosswalk instance shared by many threads, without validation so it executes without web access. */
+public class ConcurrentCrosswalkTest {
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 5;
+
+    private static File[] inputFiles;
+    private static final Map<File, String> expected = new HashMap<File, String>();
+
+    @BeforeClass
+    public static void singleThreaded() throws Exception {
+        inputFiles = inputFiles();
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        for (final File file : inputFiles)
+            expected.put(file, emdOf(crosswalk, file));
+    }
+
+    private static String emdOf(final Ddm2EmdCrosswalk crosswalk, final File file) throws Exception {
+        final EasyMetadata emd = crosswalk.createFrom(FileUtils.readFileToString(file, "UTF-8"));
+        assertNotNull("no EMD for " + file, emd);
+        return marshal(emd);
+    }
+
+    @Test
+    public void sharedInstance() throws Exception {
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<Map<File, String>>> futures = new ArrayList<Future<Map<File, String>>>();
+            for (int t = 0; t < THREADS; t++) {
+                final int offset = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    final Map<File, String> actual = new HashMap<File, String>();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        // each thread walks the files in a different order
+                        for (int i = 0; i < inputFiles.length; i++) {
+                            final File file = inputFiles[(i + offset) % inputFiles.length];
+                            crosswalk.getXmlErrorHandler().reset();
+                            final String emd = emdOf(crosswalk, file);
+                            assertThat(crosswalk.getXmlErrorHandler().getErrors().size(), is(0));
+                            actual.put(file, emd);
+                        }
+                    }
+                    return actual;
+                }));
+            }
+            start.countDown();
+            for (final Future<Map<File, String>> future : futures) {
+                final Map<File, String> actual = future.get();
+                for (final File file : inputFiles)
+                    assertThat("EMD of " + file.getName(), actual.get(file), is(expected.get(file)));
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void batch() throws Exception {
+        final List<File> files = new ArrayList<File>();
+        for (int round = 0; round < ROUNDS; round++)
+            files.addAll(Arrays.asList(inputFiles));
+        final List<Ddm2EmdResult> results = new Ddm2EmdCrosswalk(null).createFromAll(files, THREADS);
+        assertThat(results.size(), is(files.size()));
+        for (int i = 0; i < files.size(); i++) {
+            final Ddm2EmdResult result = results.get(i);
+            assertThat(result.getFile(), is(files.get(i)));
+            assertThat(result.getException() + "", result.passed(), is(true));
+            assertThat(result.getXmlErrorHandler().getErrors().size(), is(0));
+            assertThat("EMD of " + result.getFile().getName(), marshal(result.getEmd()), is(expected.get(result.getFile())));
+        }
+    }
+
+    @Test
+    public void streamedBatch() throws Exception {
+        final List<Path> paths = new ArrayList<Path>();
+        for (int round = 0; round < ROUNDS; round++)
+            for (final File file : inputFiles)
+                paths.add(file.toPath());
+        final List<Ddm2EmdResult> results = new ArrayList<Ddm2EmdResult>();
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            new Ddm2EmdCrosswalk(null).createFromPaths(paths.stream()::iterator, executor, results::add);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        assertThat(results.size(), is(paths.size()));
+        for (final Ddm2EmdResult result : results) {
+            assertThat(result.getException() + "", result.passed(), is(true));
+            assertThat("EMD of " + result.getPath(), marshal(result.getEmd()), is(expected.get(result.getFile())));
+        }
+    }
+
+    @Test
+    public void batchRestoresTheHandlerOfAPoolThread() throws Exception {
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        final File invalid = File.createTempFile("invalid", ".xml");
+        invalid.deleteOnExit();
+        FileUtils.writeStringToFile(invalid, "<ddm:DDM", "UTF-8");
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final XMLErrorHandler own = executor.submit(() -> crosswalk.getXmlErrorHandler()).get();
+            final List<Ddm2EmdResult> results = crosswalk.createFromAll(Arrays.asList(invalid), executor);
+            assertThat(results.get(0).passed(), is(false));
+            assertThat(results.get(0).getXmlErrorHandler().getFatalErrors().size(), is(1));
+            assertThat(executor.submit(() -> crosswalk.getXmlErrorHandler()).get(), sameInstance(own));
+            assertThat(own.getFatalErrors().size(), is(0));
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -160,31 +160,31 @@ public class CrosswalkInlineTest {
         final String xml = newRootWithXhtml(newMiniProfile("") + newAdditional(FREE_CONTENT));
         final String xsd = "http://www.w3.org/2002/08/xhtml/xhtml1-strict.xsd";
         final String withXhtmlSchema = xml.replace("schemaLocation='", "schemaLocation='" + "http://www.w3.org/1999/xhtml" + " " + xsd + " ");
-        // warnings about skipped elements
-        final EasyMetadata emd = runTest(new Exception(), withXhtmlSchema, 2, " xhtml:body at level:3", " p at level:4");
+        // a warning about the skipped element, its content is discarded
+        final EasyMetadata emd = runTest(new Exception(), withXhtmlSchema, 1, " xhtml:body at level:3");
         checkMiniProfile(emd);
     }
 
     @Test
     public void freeContentWithoutSchema() throws Exception {
         final String xml = newRootWithXhtml(newMiniProfile("") + newAdditional(FREE_CONTENT));
-        // warnings about skipped elements
-        final EasyMetadata emd = runTest(new Exception(), xml, 2, " xhtml:body at level:3", " p at level:4");
+        // a warning about the skipped element, its content is discarded
+        final EasyMetadata emd = runTest(new Exception(), xml, 1, " xhtml:body at level:3");
         checkMiniProfile(emd);
     }
 
     @Test
     public void freeContentWithoutNS() throws Exception {
         final String xml = newRoot(newMiniProfile("") + newAdditional("<body><p>Hello</p></body>"));
-        // warnings about skipped elements
-        final EasyMetadata emd = runTest(new Exception(), xml, 3, "Invalid content", "schemas");
+        // a warning about the skipped element, its content is discarded
+        final EasyMetadata emd = runTest(new Exception(), xml, 2, "Invalid content", "schemas", " body at level:3");
         assertThat(emd, nullValue());
     }
 
     @Test
     public void freeContentInProfile() throws Exception {
         final String xml = newRootWithXhtml(newMiniProfile(FREE_CONTENT));
-        final EasyMetadata emd = runTest(new Exception(), xml, 3, " xhtml:body at level:3", " p at level:4", "No child element is expected");
+        final EasyMetadata emd = runTest(new Exception(), xml, 2, " xhtml:body at level:3", "No child element is expected");
         assertThat(emd, nullValue());
     }
 
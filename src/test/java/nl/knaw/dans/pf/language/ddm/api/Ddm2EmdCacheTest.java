@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import static nl.knaw.dans.pf.language.ddm.api.Ddm2EmdFixtures.marshal;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import nl.knaw.dans.pf.language.emd.EasyMetadata;
+import nl.knaw.dans.pf.language.xml.crosswalk.Crosswalker.Engine;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Without validation so it executes without web access. */
+public class Ddm2EmdCacheTest {
+    private static final File INPUT = new File("src/test/resources/ddm2emdCrosswalk/spatialPolygonRD.input.xml");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void memory() throws Exception {
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        crosswalk.setCache(new Ddm2EmdCache(10));
+        final byte[] xml = Files.readAllBytes(INPUT.toPath());
+
+        final EasyMetadata first = crosswalk.createFromValidated(xml);
+        final EasyMetadata second = crosswalk.createFromValidated(xml);
+        assertThat(second, not(sameInstance(first)));
+        assertThat(marshal(second), is(marshal(first)));
+        assertThat(crosswalk.getCache().getMisses(), is(1L));
+        assertThat(crosswalk.getCache().getHits(), is(1L));
+
+        // the same content through another overload
+        marshal(crosswalk.createFromValidated(INPUT));
+        assertThat(crosswalk.getCache().getHits(), is(2L));
+    }
+
+    @Test
+    public void disk() throws Exception {
+        final File dir = folder.newFolder("results");
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        crosswalk.setCache(new Ddm2EmdCache(10, dir));
+        final String expected = marshal(crosswalk.createFromValidated(INPUT));
+
+        // as after a restart
+        final Ddm2EmdCache cache = new Ddm2EmdCache(10, dir);
+        crosswalk.setCache(cache);
+        assertThat(marshal(crosswalk.createFromValidated(INPUT)), is(expected));
+        assertThat(cache.getDiskHits(), is(1L));
+        assertThat(cache.size(), is(1));
+
+        cache.invalidateAll();
+        assertThat(cache.size(), is(0));
+        assertThat(FileUtils.listFiles(dir, null, true).size(), is(0));
+        marshal(crosswalk.createFromValidated(INPUT));
+        assertThat(cache.getMisses(), is(1L));
+    }
+
+    @Test
+    public void otherVersionsAreDeleted() throws Exception {
+        final File dir = folder.newFolder("results");
+        final File old = new File(dir, String.format("%064d", 0));
+        assertThat(old.mkdir(), is(true));
+        assertThat(new File(old, "result.emd").createNewFile(), is(true));
+        final File unrelated = folder.newFile("results/unrelated.txt");
+
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        crosswalk.setCache(new Ddm2EmdCache(10, dir));
+        marshal(crosswalk.createFromValidated(INPUT));
+        assertThat(old.exists(), is(false));
+        assertThat(unrelated.exists(), is(true));
+        assertThat(FileUtils.listFiles(dir, new String[] {"emd"}, true).size(), is(1));
+    }
+
+    @Test
+    public void lru() throws Exception {
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        crosswalk.setCache(new Ddm2EmdCache(1));
+        final byte[] xml = Files.readAllBytes(INPUT.toPath());
+        final byte[] other = Files.readAllBytes(new File("src/test/resources/ddm2emdCrosswalk/spatialPolygonWGS84.input.xml").toPath());
+
+        marshal(crosswalk.createFromValidated(xml));
+        marshal(crosswalk.createFromValidated(other));
+        marshal(crosswalk.createFromValidated(xml));
+        assertThat(crosswalk.getCache().getMisses(), is(3L));
+        assertThat(crosswalk.getCache().size(), is(1));
+
+        crosswalk.getCache().invalidate(xml);
+        assertThat(crosswalk.getCache().size(), is(0));
+    }
+
+    @Test
+    public void settingsAreKeyed() throws Exception {
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        crosswalk.setCache(new Ddm2EmdCache(10));
+        crosswalk.setEmdCheck(EmdCheck.FULL);
+        final byte[] xml = Files.readAllBytes(INPUT.toPath());
+        marshal(crosswalk.createFromValidated(xml));
+
+        crosswalk.setEmdCheck(EmdCheck.OFF);
+        marshal(crosswalk.createFromValidated(xml));
+        assertThat(crosswalk.getCache().getMisses(), is(2L));
+
+        crosswalk.setEngine(Engine.STAX);
+        marshal(crosswalk.createFromValidated(xml));
+        assertThat(crosswalk.getCache().getMisses(), is(3L));
+
+        crosswalk.setErrorBudget(5);
+        marshal(crosswalk.createFromValidated(xml));
+        assertThat(crosswalk.getCache().getMisses(), is(4L));
+
+        crosswalk.setEmdCheck(EmdCheck.FULL);
+        crosswalk.setEngine(Engine.SAX);
+        crosswalk.setErrorBudget(0);
+        marshal(crosswalk.createFromValidated(xml));
+        assertThat(crosswalk.getCache().getHits(), is(1L));
+
+        // whatever the settings
+        crosswalk.getCache().invalidate(xml);
+        assertThat(crosswalk.getCache().size(), is(0));
+    }
+
+    @Test
+    public void versionIsKeyed() throws Exception {
+        final byte[] xml = Files.readAllBytes(INPUT.toPath());
+        final String key = Ddm2EmdCache.key(xml, "1.0 " + Ddm2EmdHandlerMap.getVersion(), "settings");
+
+        assertThat(Ddm2EmdCache.key(xml, "1.1 " + Ddm2EmdHandlerMap.getVersion(), "settings"), not(is(key)));
+        assertThat(Ddm2EmdCache.key(xml, "1.0 another vocabulary", "settings"), not(is(key)));
+        assertThat(Ddm2EmdCache.key(xml, "1.0 " + Ddm2EmdHandlerMap.getVersion(), "settings"), is(key));
+    }
+}
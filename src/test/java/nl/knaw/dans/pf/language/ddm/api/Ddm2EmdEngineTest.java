@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import nl.knaw.dans.pf.language.emd.EasyMetadata;
+import nl.knaw.dans.pf.language.xml.crosswalk.Crosswalker.Engine;
+import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler;
+import org.junit.Test;
+
+import java.io.File;
+
+import static nl.knaw.dans.pf.language.ddm.api.Ddm2EmdFixtures.inputFiles;
+import static nl.knaw.dans.pf.language.ddm.api.Ddm2EmdFixtures.marshal;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+/** The StAX engine produces the same Easy Meta Data and notifications as the SAX engine, without validation so it executes without web access. */
+public class Ddm2EmdEngineTest {
+    private final Ddm2EmdCrosswalk sax = new Ddm2EmdCrosswalk(null);
+    private final Ddm2EmdCrosswalk stax = new Ddm2EmdCrosswalk(null);
+
+    public Ddm2EmdEngineTest() {
+        stax.setEngine(Engine.STAX);
+    }
+
+    @Test
+    public void sameForBothEngines() throws Exception {
+        final File[] files = inputFiles();
+        for (final File file : files) {
+            sax.getXmlErrorHandler().reset();
+            stax.getXmlErrorHandler().reset();
+            final String expected = marshal(sax.createFromValidated(file));
+
+            assertThat(file.getName(), marshal(stax.createFromValidated(file)), is(expected));
+            assertSameNotifications(file.getName(), sax.getXmlErrorHandler(), stax.getXmlErrorHandler());
+        }
+    }
+
+    @Test
+    public void notWellFormed() throws Exception {
+        final String xml = "<ddm:DDM xmlns:ddm='http://easy.dans.knaw.nl/schemas/md/ddm/'><ddm:profile></ddm:DDM>";
+        sax.getXmlErrorHandler().reset();
+        stax.getXmlErrorHandler().reset();
+
+        assertNull(crosswalkQuietly(sax, xml));
+        assertNull(crosswalkQuietly(stax, xml));
+        assertThat(stax.getXmlErrorHandler().getFatalErrors().size(), is(sax.getXmlErrorHandler().getFatalErrors().size()));
+    }
+
+    private static EasyMetadata crosswalkQuietly(final Ddm2EmdCrosswalk crosswalk, final String xml) {
+        try {
+            return crosswalk.createFromValidated(xml);
+        }
+        catch (final Exception e) {
+            return null;
+        }
+    }
+
+    private static void assertSameNotifications(final String name, final XMLErrorHandler expected, final XMLErrorHandler actual) {
+        assertThat(name, actual.getWarnings().size(), is(expected.getWarnings().size()));
+        assertThat(name, actual.getErrors().size(), is(expected.getErrors().size()));
+        assertThat(name, actual.getFatalErrors().size(), is(expected.getFatalErrors().size()));
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.net.URISyntaxException;
+
+import nl.knaw.dans.pf.language.emd.EasyMetadata;
+import nl.knaw.dans.pf.language.emd.binding.EmdMarshaller;
+
+/** The crosswalk test documents and a comparable form of their results, shared by the tests that compare ways to crosswalk. */
+final class Ddm2EmdFixtures {
+
+    private Ddm2EmdFixtures() {}
+
+    /** @return the input documents of the crosswalk tests */
+    static File[] inputFiles() throws URISyntaxException {
+        final File dir = new File(Ddm2EmdFixtures.class.getResource("/ddm2emdCrosswalk").toURI());
+        return dir.listFiles((d, name) -> name.endsWith(".input.xml"));
+    }
+
+    /** @return the XML of the Easy Meta Data, which must not be null */
+    static String marshal(final EasyMetadata emd) throws Exception {
+        assertNotNull(emd);
+        return new EmdMarshaller(emd).getXmlString();
+    }
+}
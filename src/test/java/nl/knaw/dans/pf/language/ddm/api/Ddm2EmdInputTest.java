@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static nl.knaw.dans.pf.language.ddm.api.Ddm2EmdFixtures.inputFiles;
+import static nl.knaw.dans.pf.language.ddm.api.Ddm2EmdFixtures.marshal;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+/** The overloads for the various kinds of input produce the same Easy Meta Data, without validation so it executes without web access. */
+public class Ddm2EmdInputTest {
+    private final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+
+    @Test
+    public void sameForAllInputs() throws Exception {
+        final File[] files = inputFiles();
+        for (final File file : files) {
+            final byte[] bytes = Files.readAllBytes(file.toPath());
+            final String expected = marshal(crosswalk.createFromValidated(file));
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes).flip();
+
+            assertThat(file.getName(), marshal(crosswalk.createFromValidated(file.toPath())), is(expected));
+            assertThat(file.getName(), marshal(crosswalk.createFromValidated(bytes)), is(expected));
+            assertThat(file.getName(), marshal(crosswalk.createFromValidated(buffer)), is(expected));
+            assertThat(file.getName(), buffer.remaining(), is(bytes.length));
+            assertThat(file.getName(), marshal(crosswalk.createFromValidated(new ByteArrayInputStream(bytes))), is(expected));
+            assertThat(file.getName(), marshal(crosswalk.createFromValidated(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8))),
+                    is(expected));
+        }
+    }
+}
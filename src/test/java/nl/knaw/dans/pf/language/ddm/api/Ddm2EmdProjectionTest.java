@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import nl.knaw.dans.pf.language.emd.EasyMetadata;
+import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkStatistics;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.EnumSet;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+/** Without validation so it executes without web access. */
+public class Ddm2EmdProjectionTest {
+    private static final File SPATIAL = new File("src/test/resources/input/spatial.xml");
+
+    @Test
+    public void onlyProjectedSections() throws Exception {
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        crosswalk.setProjection(EnumSet.of(EmdSection.TITLE, EmdSection.CREATOR));
+        final EasyMetadata emd = crosswalk.createFromValidated(SPATIAL);
+
+        assertThat(crosswalk.getXmlErrorHandler().getMessages(), crosswalk.getXmlErrorHandler().passed(), is(true));
+        assertThat(emd.getEmdTitle().getDcTitle().get(0).getValue(), is("fabeltjeskrant"));
+        assertThat(emd.getEmdCreator().getDcCreator().get(0).getValue(), is("meneer de uil"));
+        assertThat(emd.getEmdCoverage().getEasSpatial().size(), is(0));
+        assertThat(emd.getEmdDate().getEasCreated().size(), is(0));
+        assertThat(emd.getEmdAudience().getDisciplines().size(), is(0));
+    }
+
+    @Test
+    public void allSectionsWithoutProjection() throws Exception {
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        crosswalk.setProjection(EnumSet.of(EmdSection.TITLE));
+        crosswalk.setProjection(null);
+        final EasyMetadata emd = crosswalk.createFromValidated(SPATIAL);
+
+        assertThat(emd.getEmdTitle().getDcTitle().get(0).getValue(), is("fabeltjeskrant"));
+        assertThat(emd.getEmdCoverage().getEasSpatial().size(), is(3));
+    }
+
+    @Test
+    public void statisticsByRegistryKey() throws Exception {
+        final CrosswalkStatistics statistics = new CrosswalkStatistics();
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        crosswalk.setListener(statistics);
+        crosswalk.createFromValidated(SPATIAL);
+
+        assertThat(statistics.getElementCount("/dc:title"), is(1L));
+        assertThat(statistics.getElementCount("SimpleGMLType/dcterms:spatial"), is(1L));
+        assertThat(statistics.getElementCount("/dcx-gml:spatial"), is(3L));
+    }
+
+    @Test
+    public void projectionBypassesCache() throws Exception {
+        final Ddm2EmdCache cache = new Ddm2EmdCache(10);
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        crosswalk.setCache(cache);
+        crosswalk.setProjection(EnumSet.of(EmdSection.COVERAGE));
+        final EasyMetadata emd = crosswalk.createFromValidated(SPATIAL);
+
+        assertThat(emd.getEmdCoverage().getEasSpatial().size(), is(3));
+        assertThat(emd.getEmdTitle().getDcTitle().size(), is(0));
+        assertThat(cache.size(), is(0));
+    }
+}
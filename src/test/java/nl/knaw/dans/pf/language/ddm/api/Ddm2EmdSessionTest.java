@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkException;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static nl.knaw.dans.pf.language.ddm.api.Ddm2EmdFixtures.inputFiles;
+import static nl.knaw.dans.pf.language.ddm.api.Ddm2EmdFixtures.marshal;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/** A session fed in chunks produces the same Easy Meta Data as a crosswalk of the complete document, without validation so it executes without web access. */
+public class Ddm2EmdSessionTest {
+    private final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+
+    @Test
+    public void sameAsComplete() throws Exception {
+        final File[] files = inputFiles();
+        for (final File file : files) {
+            final byte[] bytes = Files.readAllBytes(file.toPath());
+            final String expected = marshal(crosswalk.createFromValidated(file));
+
+            // chunks that split elements, names and multi byte characters
+            final Ddm2EmdSession session = crosswalk.newSessionForValidated();
+            for (int i = 0; i < bytes.length; i += 7)
+                session.feed(bytes, i, Math.min(7, bytes.length - i));
+            assertThat(file.getName(), marshal(session.end()), is(expected));
+            assertTrue(session.isClosed());
+
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes).flip();
+            final Ddm2EmdSession direct = crosswalk.newSessionForValidated();
+            direct.feed(buffer);
+            assertThat(file.getName(), marshal(direct.end()), is(expected));
+        }
+    }
+
+    @Test
+    public void incomplete() throws Exception {
+        final byte[] xml = "<ddm:DDM xmlns:ddm='http://easy.dans.knaw.nl/schemas/md/ddm/'><ddm:profile>".getBytes(StandardCharsets.UTF_8);
+        final Ddm2EmdSession session = crosswalk.newSessionForValidated();
+        session.feed(xml, 0, xml.length);
+        try {
+            session.end();
+            fail("expected an exception");
+        }
+        catch (final CrosswalkException e) {
+            assertThat(session.getXmlErrorHandler().getFatalErrors().size(), is(1));
+            assertTrue(session.isClosed());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closed() throws Exception {
+        final byte[] xml = "<a/>".getBytes(StandardCharsets.UTF_8);
+        final Ddm2EmdSession session = crosswalk.newSessionForValidated();
+        session.feed(xml, 0, xml.length);
+        session.end();
+        session.feed(xml, 0, xml.length);
+    }
+}
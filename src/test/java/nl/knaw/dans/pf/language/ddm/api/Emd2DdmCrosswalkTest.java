@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import javax.xml.transform.stream.StreamSource;
+
+import nl.knaw.dans.pf.language.emd.EasyMetadata;
+import nl.knaw.dans.pf.language.emd.binding.EmdMarshaller;
+import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkException;
+import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+/** Round trips of the DDM to EMD crosswalk tests through the DDM writer. */
+@RunWith(Parameterized.class)
+public class Emd2DdmCrosswalkTest {
+
+    /** funder identifiers and the 'local' spatial scheme are not kept by the DDM to EMD crosswalk */
+    private static final List<String> LOSSY = Arrays.asList("funding", "spatialGmlPoints");
+
+    /** has all elements required in the profile */
+    private static final File COMPLETE = new File("src/test/resources/input/ddm.xml");
+
+    @Parameters
+    public static Collection<Object[]> data() {
+        final List<Object[]> data = new ArrayList<Object[]>();
+        for (final Object[] testcase : Ddm2EmdCrosswalkTest.data())
+            if (!LOSSY.contains(testcase[0]))
+                data.add(testcase);
+        return data;
+    }
+
+    private final String testName;
+
+    public Emd2DdmCrosswalkTest(final String testName) {
+        this.testName = testName;
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        final EasyMetadata emd = completeProfile(crosswalk(getInput()));
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Emd2DdmCrosswalk().write(emd, out);
+        final EasyMetadata roundTripped = new Ddm2EmdCrosswalk(null).createFrom(out.toString("UTF-8"));
+
+        assertThat(testName + "\n" + out.toString("UTF-8"), new EmdMarshaller(roundTripped).getXmlString(), is(new EmdMarshaller(emd).getXmlString()));
+    }
+
+    @Test
+    public void validInputGivesValidOutput() throws Exception {
+        // some inputs are fragments that don't satisfy the bundled schemas, the output of the others must satisfy them too
+        final File ddmFile = getInput();
+        if (!new DDMValidator().validate(ddmFile).passed())
+            return;
+        final EasyMetadata emd = crosswalk(ddmFile);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new Emd2DdmCrosswalk().write(emd, out);
+        final XMLErrorHandler handler = new DDMValidator().validate(new StreamSource(new ByteArrayInputStream(out.toByteArray())));
+
+        assertTrue(testName + "\n" + handler.getMessages() + "\n" + out.toString("UTF-8"), handler.passed());
+    }
+
+    @Test
+    public void incompleteProfile() throws Exception {
+        final EasyMetadata emd = completeProfile(crosswalk(getInput()));
+        emd.getEmdTitle().getDcTitle().clear();
+        try {
+            new Emd2DdmCrosswalk().write(emd, new ByteArrayOutputStream());
+            fail("expected an exception");
+        }
+        catch (final CrosswalkException e) {
+            assertThat(e.getMessage(), containsString("dc:title"));
+        }
+    }
+
+    private File getInput() {
+        return new File("src/test/resources/ddm2emdCrosswalk", String.format("%s.input.xml", testName));
+    }
+
+    private static EasyMetadata crosswalk(final File ddmFile) throws Exception {
+        return new Ddm2EmdCrosswalk(null).createFrom(FileUtils.readFileToString(ddmFile, "UTF-8"));
+    }
+
+    /** most inputs are fragments, the writer requires the missing elements of the profile */
+    private static EasyMetadata completeProfile(final EasyMetadata emd) throws Exception {
+        final EasyMetadata complete = crosswalk(COMPLETE);
+        if (emd.getEmdTitle().getDcTitle().isEmpty())
+            emd.getEmdTitle().getDcTitle().add(complete.getEmdTitle().getDcTitle().get(0));
+        if (emd.getEmdCreator().getDcCreator().isEmpty() && emd.getEmdCreator().getEasCreator().isEmpty())
+            emd.getEmdCreator().getEasCreator().add(complete.getEmdCreator().getEasCreator().get(0));
+        if (emd.getEmdDate().getEasCreated().isEmpty())
+            emd.getEmdDate().getEasCreated().add(complete.getEmdDate().getEasCreated().get(0));
+        if (emd.getEmdRights().getTermsAccessRights().isEmpty())
+            emd.getEmdRights().getTermsAccessRights().add(complete.getEmdRights().getTermsAccessRights().get(0));
+        return emd;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.api;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Paths;
+
+import nl.knaw.dans.pf.language.emd.EasyMetadata;
+import nl.knaw.dans.pf.language.xml.crosswalk.CrosswalkException;
+import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler;
+import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler.Reporter;
+
+import org.junit.Test;
+
+public class EmdCheckTest {
+    /** Has no binding, so it can not be marshalled. */
+    private static final EasyMetadata INVALID = (EasyMetadata) Proxy.newProxyInstance(EmdCheckTest.class.getClassLoader(),
+            new Class<?>[] {EasyMetadata.class}, (proxy, method, args) -> null);
+
+    @Test
+    public void offPassesAnInvalidEmd() throws Exception {
+        final XMLErrorHandler handler = new XMLErrorHandler(Reporter.off);
+        assertThat(crosswalk(EmdCheck.OFF).validateEMD(INVALID, handler), sameInstance(INVALID));
+        assertThat(handler.getErrors().size(), is(0));
+    }
+
+    @Test
+    public void streamingRejectsAnInvalidEmd() throws Exception {
+        rejects(EmdCheck.STREAMING);
+    }
+
+    @Test
+    public void fullRejectsAnInvalidEmd() throws Exception {
+        rejects(EmdCheck.FULL);
+    }
+
+    @Test
+    public void allPassAValidEmd() throws Exception {
+        for (final EmdCheck check : EmdCheck.values()) {
+            final Ddm2EmdCrosswalk crosswalk = crosswalk(check);
+            final EasyMetadata emd = crosswalk.createFromValidated(Paths.get("src/test/resources/ddm2emdCrosswalk/spatialPoint.input.xml"));
+            assertThat(check + "", emd == null, is(false));
+            assertThat(check + "", crosswalk.getXmlErrorHandler().getErrors().size(), is(0));
+        }
+    }
+
+    private static void rejects(final EmdCheck check) {
+        final XMLErrorHandler handler = new XMLErrorHandler(Reporter.off);
+        try {
+            crosswalk(check).validateEMD(INVALID, handler);
+            fail(check + " should reject an EMD that can not be marshalled");
+        }
+        catch (final CrosswalkException e) {
+            assertThat(e.getMessage().startsWith("resulting Easy Meta Data is invalid"), is(true));
+            assertThat(handler.getErrors().size(), is(1));
+        }
+    }
+
+    private static Ddm2EmdCrosswalk crosswalk(final EmdCheck check) {
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        crosswalk.setEmdCheck(check);
+        return crosswalk;
+    }
+}
@@ -15,8 +15,8 @@
  */
 package nl.knaw.dans.pf.language.ddm.api;
 
+import nl.knaw.dans.pf.language.xml.schema.SchemaCache;
 import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler;
-import org.junit.BeforeClass;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,23 +24,17 @@ import org.slf4j.LoggerFactory;
 import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 import java.io.File;
-import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
 
-import static nl.knaw.dans.pf.language.ddm.handlermaps.NameSpace.DC;
 import static org.junit.Assert.assertTrue;
-import static org.junit.Assume.assumeTrue;
 
+/** The schemas are bundled, so these tests don't need network access. */
 public class ValidatorTest {
 
     private static final Logger logger = LoggerFactory.getLogger(ValidatorTest.class);
 
-    @BeforeClass
-    public static void externalSchemaCheck() {
-        // ignore test case if not available
-        assumeTrue("can access " + DC.xsd, canConnect(DC.xsd));
-    }
+    /** JAXP system properties that restrict the protocols of external schemas and DTDs */
+    private static final String ACCESS_EXTERNAL_SCHEMA = "javax.xml.accessExternalSchema";
+    private static final String ACCESS_EXTERNAL_DTD = "javax.xml.accessExternalDTD";
 
     @Test
     public void testValidation() throws Exception {
@@ -63,15 +57,29 @@ public class ValidatorTest {
         assertTrue(handler.passed());
     }
 
-    private static boolean canConnect(String url) {
+    @Test
+    public void spatialWithoutNetworkAccess() throws Exception {
+        // the JAXP properties are read by each new factory, so compile again with http(s) blocked
+        final String schema = System.getProperty(ACCESS_EXTERNAL_SCHEMA);
+        final String dtd = System.getProperty(ACCESS_EXTERNAL_DTD);
+        System.setProperty(ACCESS_EXTERNAL_SCHEMA, "file,jar");
+        System.setProperty(ACCESS_EXTERNAL_DTD, "file,jar");
+        SchemaCache.clear();
         try {
-            HttpURLConnection urlConnection = (HttpURLConnection) new URL(url).openConnection();
-            urlConnection.connect();
-            urlConnection.disconnect();
-            return true;
+            XMLErrorHandler handler = new DDMValidator().validate(new File("src/test/resources/input/ddm-spatial.xml"));
+            assertTrue(handler.getMessages(), handler.passed());
         }
-        catch (IOException e) {
-            return false;
+        finally {
+            restore(ACCESS_EXTERNAL_SCHEMA, schema);
+            restore(ACCESS_EXTERNAL_DTD, dtd);
+            SchemaCache.clear();
         }
     }
+
+    private static void restore(String key, String value) {
+        if (value == null)
+            System.clearProperty(key);
+        else
+            System.setProperty(key, value);
+    }
 }
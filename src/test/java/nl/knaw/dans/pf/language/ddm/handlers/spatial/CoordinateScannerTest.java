@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.handlers.spatial;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class CoordinateScannerTest {
+    private final CoordinateScanner scanner = new CoordinateScanner();
+
+    @Test
+    public void sameAsSplit() throws Exception {
+        for (final String text : new String[] { "1 2", "  52.08 4.34\n", "1\t2\r\n3  4", "\u0001x y\u0001", "1.0 2 1.0 2", "a\u0001b c" }) {
+            final String[] expected = text.trim().split("\\s+");
+            assertThat(text, scanner.scan(text), is(expected.length));
+            for (int i = 0; i < expected.length; i++)
+                assertThat(text, scanner.get(i), is(expected[i]));
+        }
+    }
+
+    @Test
+    public void empty() throws Exception {
+        assertThat(scanner.scan(""), is(0));
+        assertThat(scanner.scan(" \n\t "), is(0));
+    }
+
+    @Test
+    public void many() throws Exception {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++)
+            text.append(i).append(' ');
+        assertThat(scanner.scan(text), is(1000));
+        assertThat(scanner.get(999), is("999"));
+    }
+}
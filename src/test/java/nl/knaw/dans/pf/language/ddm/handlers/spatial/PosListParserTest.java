@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.handlers.spatial;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import nl.knaw.dans.pf.language.emd.types.PolygonPoint;
+
+import org.junit.Test;
+
+public class PosListParserTest {
+    private static final String TRIANGLE = " 52.08 4.34\n52.09 4.35\t52.10 4.34  52.08 4.34\r\n";
+
+    private final PosListParser parser = new PosListParser();
+
+    @Test
+    public void chunks() throws Exception {
+        final char[] text = TRIANGLE.toCharArray();
+        for (int chunk = 1; chunk <= text.length; chunk++) {
+            parser.start(false);
+            for (int i = 0; i < text.length; i += chunk)
+                parser.chars(text, i, Math.min(chunk, text.length - i));
+            assertThat(parser.finish(), nullValue());
+            final List<PolygonPoint> points = parser.getPoints();
+            assertThat(points.size(), is(4));
+            assertThat(points.get(1).getX(), is("52.09"));
+            assertThat(points.get(1).getY(), is("4.35"));
+        }
+    }
+
+    @Test
+    public void swap() throws Exception {
+        parser.start(true);
+        parser.chars(TRIANGLE.toCharArray(), 0, TRIANGLE.length());
+        assertThat(parser.finish(), nullValue());
+        assertThat(parser.getPoints().get(0).getX(), is("4.34"));
+        assertThat(parser.getPoints().get(0).getY(), is("52.08"));
+    }
+
+    @Test
+    public void errors() throws Exception {
+        assertThat(parse("1 2 3 4 5 6 1"), is("expected at least 4 coordinate pairs to construct at least a triangle"));
+        assertThat(parse("1 2 3 4 5 6 1 2 3"), is("expected an even number of coordinates since they're taken in pairs of two"));
+        assertThat(parse("1 2 3 4 5 6 7 8"), is("first pair of coordinates should equal the last pair of coordinates"));
+        // like before, one matching coordinate of the pair is enough
+        assertThat(parse("1 2 3 4 5 6 1 8"), nullValue());
+    }
+
+    private String parse(final String text) {
+        parser.start(false);
+        parser.chars(text.toCharArray(), 0, text.length());
+        return parser.finish();
+    }
+}
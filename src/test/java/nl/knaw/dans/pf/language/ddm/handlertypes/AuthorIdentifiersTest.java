@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.handlertypes;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class AuthorIdentifiersTest {
+
+    @Test
+    public void isni() throws Exception {
+        assertThat(AuthorIdentifiers.isni("000000012281955X"), is("000000012281955X"));
+        assertThat(AuthorIdentifiers.isni("ISNI:000000012281955X"), is("000000012281955X"));
+        assertThat(AuthorIdentifiers.isni("http://isni.org/isni/000000012281955x"), is("000000012281955X"));
+        assertThat(AuthorIdentifiers.isni("1111 2222 8150 8694"), is("1111222281508694"));
+    }
+
+    @Test
+    public void invalidIsni() throws Exception {
+        // wrong check character
+        assertThat(AuthorIdentifiers.isni("1111 2222 8150 8690"), nullValue());
+        assertThat(AuthorIdentifiers.isni("0000000122819550"), nullValue());
+        // layout
+        assertThat(AuthorIdentifiers.isni("000000012281955"), nullValue());
+        assertThat(AuthorIdentifiers.isni("000000012281955XX"), nullValue());
+        assertThat(AuthorIdentifiers.isni("1111  2222 8150 8694"), nullValue());
+        assertThat(AuthorIdentifiers.isni("11112 222 8150 8694"), nullValue());
+        assertThat(AuthorIdentifiers.isni("123"), nullValue());
+        assertThat(AuthorIdentifiers.stripIsni("http://isni.org/isni/ISNI:123"), is("123"));
+    }
+
+    @Test
+    public void orcid() throws Exception {
+        assertThat(AuthorIdentifiers.orcid("0000-0002-1825-0097"), is("0000-0002-1825-0097"));
+        assertThat(AuthorIdentifiers.orcid("https://orcid.org/0000-0001-2281-955X"), is("0000-0001-2281-955X"));
+        assertThat(AuthorIdentifiers.orcid("0000-0002-1694-233x"), is("0000-0002-1694-233X"));
+    }
+
+    @Test
+    public void invalidOrcid() throws Exception {
+        assertThat(AuthorIdentifiers.orcid("0000-0002-1825-0098"), nullValue());
+        assertThat(AuthorIdentifiers.orcid("0000-0002-1825-009"), nullValue());
+        assertThat(AuthorIdentifiers.orcid("0000000218250097"), nullValue());
+        assertThat(AuthorIdentifiers.orcid("0000-0002-1825-00970"), nullValue());
+        assertThat(AuthorIdentifiers.orcid("http://orcid.org/0000-0002-1825-0097"), nullValue());
+        assertThat(AuthorIdentifiers.stripOrcid("https://orcid.org/123"), is("123"));
+    }
+
+    @Test
+    public void dai() throws Exception {
+        assertThat(AuthorIdentifiers.isValidDai("9876543216"), is(true));
+        assertThat(AuthorIdentifiers.isValidDai("123456789x"), is(false));
+        assertThat(AuthorIdentifiers.isValidDai(null), is(false));
+    }
+
+    @Test
+    public void memo() throws Exception {
+        for (int i = 0; i < AuthorIdentifiers.MEMO_SIZE * 2; i++)
+            assertThat(AuthorIdentifiers.orcid("0000-0000-0000-" + i), nullValue());
+        // still correct after the memo filled up
+        assertThat(AuthorIdentifiers.orcid("0000-0002-1825-0097"), is("0000-0002-1825-0097"));
+    }
+}
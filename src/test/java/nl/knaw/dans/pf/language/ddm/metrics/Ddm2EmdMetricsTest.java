@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.ddm.metrics;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+
+import javax.management.ObjectName;
+
+import nl.knaw.dans.pf.language.ddm.api.Ddm2EmdCrosswalk;
+
+import org.junit.Test;
+
+public class Ddm2EmdMetricsTest {
+
+    @Test
+    public void stages() throws Exception {
+        final Ddm2EmdMetrics metrics = new Ddm2EmdMetrics();
+        final Ddm2EmdCrosswalk crosswalk = new Ddm2EmdCrosswalk(null);
+        crosswalk.setMetrics(metrics);
+        crosswalk.createFromValidated(Paths.get("src/test/resources/ddm2emdCrosswalk/spatialPoint.input.xml"));
+        assertThat(metrics.getValidation().getCount(), is(0L));
+        assertThat(metrics.getCrosswalk().getCount(), is(1L));
+        assertThat(metrics.getCrosswalk().getFailures(), is(0L));
+        assertThat(metrics.getEmdCheck().getCount(), is(1L));
+        assertThat(metrics.getCrosswalk().getLatencyHistogram().length, is(1));
+    }
+
+    @Test
+    public void histogram() throws Exception {
+        final StageMetrics stage = new StageMetrics();
+        stage.record(1000, false);
+        stage.record(1000000, true);
+        assertThat(stage.getCount(), is(2L));
+        assertThat(stage.getFailures(), is(1L));
+        assertThat(stage.getMedianLatencyMillis(), is(1024 / 1e6));
+        assertThat(stage.getMaxLatencyMillis(), is(1.0));
+        stage.reset();
+        assertThat(stage.getCount(), is(0L));
+    }
+
+    @Test
+    public void register() throws Exception {
+        final Ddm2EmdMetrics metrics = new Ddm2EmdMetrics();
+        metrics.register("test");
+        try {
+            final ObjectName name = new ObjectName(Ddm2EmdMetrics.DOMAIN + ":type=Ddm2EmdCrosswalk,name=\"test\",stage=crosswalk");
+            assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Count"), is((Object) 0L));
+        }
+        finally {
+            metrics.unregister();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.crosswalk;
+
+import static org.hamcrest.core.Is.*;
+import static org.hamcrest.core.IsNull.*;
+import static org.hamcrest.core.IsSame.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class CrosswalkDispatchTableTest {
+    private static final String NS = "http://example.org/ns/";
+
+    private final CrosswalkHandlerFactory<StringBuffer> untyped = pool -> null;
+    private final CrosswalkHandlerFactory<StringBuffer> typed = pool -> null;
+    private final CrosswalkDispatchTable<StringBuffer> table = new CrosswalkDispatchTable<StringBuffer>();
+
+    public CrosswalkDispatchTableTest() {
+        table.register(NS, "relation", "", untyped);
+        table.register(NS, "relation", "ISBN", typed);
+        table.register(NS, "parent", "", "/ex:parent", null);
+    }
+
+    @Test
+    public void untyped() throws Exception {
+        assertThat(table.lookup(NS, "relation", null).getFactory(), sameInstance(untyped));
+        assertThat(table.lookup(NS, "relation", "").getFactory(), sameInstance(untyped));
+    }
+
+    @Test
+    public void typed() throws Exception {
+        assertThat(table.lookup(NS, "relation", "ISBN").getFactory(), sameInstance(typed));
+        assertThat(table.lookup(NS, "relation", "id-type:ISBN").getFactory(), sameInstance(typed));
+        assertThat(table.lookup(NS, "relation", "id-type:ISBN:x").getFactory(), sameInstance(typed));
+        assertThat(table.lookup(NS, "relation", "id-type:ISBNX"), nullValue());
+        assertThat(table.lookup(NS, "relation", "ISSN"), nullValue());
+    }
+
+    @Test
+    public void registeredWithoutHandler() throws Exception {
+        assertThat(table.lookup(NS, "parent", null).getFactory(), nullValue());
+    }
+
+    @Test
+    public void keys() throws Exception {
+        assertThat(table.lookup(NS, "relation", null).getKey(), is("/{" + NS + "}relation"));
+        assertThat(table.lookup(NS, "relation", "id-type:ISBN").getKey(), is("ISBN/{" + NS + "}relation"));
+        assertThat(table.lookup(NS, "parent", null).getKey(), is("/ex:parent"));
+    }
+
+    @Test
+    public void notRegistered() throws Exception {
+        assertThat(table.lookup(NS, "other", null), nullValue());
+        assertThat(table.lookup("http://example.org/other/", "relation", null), nullValue());
+        assertThat(table.lookup(NS, "parent", "ISBN") == null, is(true));
+    }
+}
@@ -19,10 +19,18 @@ import static org.hamcrest.core.Is.*;
 import static org.hamcrest.core.IsNull.*;
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.XMLConstants;
 
+import nl.knaw.dans.pf.language.xml.schema.CachedSchemaValidator;
 import nl.knaw.dans.pf.language.xml.validation.AbstractValidator2;
 
 import org.junit.Before;
@@ -70,6 +78,8 @@ public class CrosswalkerTest {
                     return createSimpleHandler();
                 else if ("complex".equals(localName))
                     return createComplexHandler();
+                else if ("blob".equals(localName))
+                    return new DiscardHandler<StringBuffer>();
                 return null;
             }
 
@@ -94,6 +104,188 @@ public class CrosswalkerTest {
         }
     }
 
+    private static class PooledCW extends Crosswalker<StringBuffer> {
+        private final AtomicInteger created = new AtomicInteger();
+        private final CrosswalkHandlerFactory<StringBuffer> factory = pool -> {
+            created.incrementAndGet();
+            return new CrosswalkHandler<StringBuffer>() {
+                @Override
+                protected void finishElement(final String uri, final String localName) throws SAXException {
+                    getTarget().append("(" + getCharsSinceStart() + ")");
+                }
+            };
+        };
+
+        public PooledCW() {
+            super(createHandlerMap());
+        }
+
+        @Override
+        protected CrosswalkHandlerMap<StringBuffer> newHandlerMap() {
+            final CrosswalkHandlerPool<StringBuffer> pool = new CrosswalkHandlerPool<StringBuffer>();
+            return new CrosswalkHandlerMap<StringBuffer>() {
+                @Override
+                public CrosswalkHandler<StringBuffer> getHandler(String uri, String localName, Attributes attributes) throws SAXException {
+                    return "nested".equals(localName) ? pool.get(factory) : null;
+                }
+
+                @Override
+                public boolean reportMissingHandler(String uri, String localName, Attributes attributes) {
+                    return false;
+                }
+            };
+        }
+
+        public StringBuffer createFrom(final String xml) throws CrosswalkException {
+            return walk(null, xml, new StringBuffer());
+        }
+    }
+
+    @Test
+    public void pooledSiblings() throws Exception {
+        PooledCW pooled = new PooledCW();
+        StringBuffer result = pooled.createFrom("<root><nested>a</nested><nested>b</nested></root>");
+        assertThat(result.toString(), is("(a)(b)"));
+        assertThat(pooled.created.get(), is(1));
+    }
+
+    @Test
+    public void pooledNesting() throws Exception {
+        PooledCW pooled = new PooledCW();
+        StringBuffer result = pooled.createFrom("<root><nested>a<nested>b</nested></nested><nested>c</nested></root>");
+        assertThat(result.toString(), is("(b)()(c)"));
+        assertThat(pooled.created.get(), is(2));
+    }
+
+    private static class SinglePassCW extends Crosswalker<StringBuffer> {
+        private final AbstractValidator2 validator = new CachedSchemaValidator(XSD);
+
+        public SinglePassCW() {
+            super(createHandlerMap());
+            setSinglePass(true);
+        }
+
+        public StringBuffer createFrom(final String xml) throws CrosswalkException {
+            return walk(validator, xml, new StringBuffer());
+        }
+
+        public StringBuffer createFrom(final InputStream xml) throws CrosswalkException {
+            return walk(validator, xml, new StringBuffer());
+        }
+
+        public StringBuffer createFrom(final Reader xml) throws CrosswalkException {
+            return walk(validator, xml, new StringBuffer());
+        }
+    }
+
+    @Test
+    public void streamIsNotClosed() throws Exception {
+        final boolean[] closed = {false};
+        final InputStream xml = new ByteArrayInputStream("<root><simple>abc</simple></root>".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+            }
+        };
+        assertThat(new SinglePassCW().createFrom(xml).toString(), is("-null-abc"));
+        assertThat(closed[0], is(false));
+    }
+
+    @Test
+    public void readerIsNotClosed() throws Exception {
+        final boolean[] closed = {false};
+        final Reader xml = new StringReader("<root><simple>abc</simple></root>") {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        assertThat(new SinglePassCW().createFrom(xml).toString(), is("-null-abc"));
+        assertThat(closed[0], is(false));
+    }
+
+    @Test
+    public void declareUtf8() throws Exception {
+        assertThat(CrosswalkInput.declareUtf8("<?xml version='1.0' encoding='ISO-8859-1'?><root/>"), is("<?xml version='1.0' encoding=\"UTF-8\"?><root/>"));
+        assertThat(CrosswalkInput.declareUtf8("<?xml version=\"1.0\"?><root/>"), is("<?xml version=\"1.0\"?><root/>"));
+        assertThat(CrosswalkInput.declareUtf8("<root encoding='x'/>"), is("<root encoding='x'/>"));
+    }
+
+    @Test
+    public void declaredEncodingOfString() throws Exception {
+        // validated from UTF-8 bytes, the declaration must not make them decode as ASCII
+        StringBuffer result = crosswalk.createFrom("<?xml version='1.0' encoding='US-ASCII'?><root><simple>\u00e9</simple></root>");
+        assertThat(result.toString(), is("-null-\u00e9"));
+        assertThat(crosswalk.getXmlErrorHandler().getFatalErrors().size(), is(0));
+    }
+
+    @Test
+    public void singlePass() throws Exception {
+        SinglePassCW singlePass = new SinglePassCW();
+        StringBuffer result = singlePass.createFrom("<?xml version='1.0' encoding='UTF-8'?><root><simple>abc</simple></root>");
+        assertThat(result.toString(), is("-null-abc"));
+        assertThat(singlePass.getXmlErrorHandler().getErrors().size(), is(0));
+    }
+
+    @Test
+    public void singlePassInvalidXml() throws Exception {
+        SinglePassCW singlePass = new SinglePassCW();
+        assertThat(singlePass.createFrom("<noroot><simple>abc</simple></noroot>"), nullValue());
+        assertThat(singlePass.getXmlErrorHandler().getErrors().size(), is(1));
+    }
+
+    @Test
+    public void errorBudget() throws Exception {
+        SinglePassCW singlePass = new SinglePassCW();
+        singlePass.setErrorBudget(1);
+        assertThat(singlePass.createFrom("<root><simple>xyz</simple><simple>xyz</simple></root>"), nullValue());
+        // the fatal error after the first error is not reached
+        assertThat(singlePass.getXmlErrorHandler().getErrors().size(), is(1));
+        assertThat(singlePass.getXmlErrorHandler().getFatalErrors().size(), is(0));
+    }
+
+    @Test
+    public void errorBudgetSkipsCrosswalk() throws Exception {
+        crosswalk.setErrorBudget(1);
+        assertThat(crosswalk.createFrom("<noroot><simple>xyz</simple></noroot>"), nullValue());
+        assertThat(crosswalk.getXmlErrorHandler().getFatalErrors().size(), is(0));
+
+        crosswalk.getXmlErrorHandler().reset();
+        crosswalk.setErrorBudget(0);
+        assertThat(crosswalk.createFrom("<noroot><simple>xyz</simple></noroot>"), nullValue());
+        assertThat(crosswalk.getXmlErrorHandler().getFatalErrors().size(), is(1));
+    }
+
+    @Test
+    public void statistics() throws Exception {
+        CrosswalkStatistics statistics = new CrosswalkStatistics();
+        crosswalk.setListener(statistics);
+        crosswalk.createFrom("<root><simple>abc</simple><complex><skip>def</skip><use>ghi</use></complex><simple>jkl</simple></root>");
+        assertThat(statistics.getElementCount("{}simple"), is(2L));
+        assertThat(statistics.getElementCount("{}use"), is(1L));
+        long controls = 0;
+        long warnings = 0;
+        for (CrosswalkStatistics.HandlerStatistics handler : statistics.getHandlerStatistics().values()) {
+            controls += handler.getControls();
+            warnings += handler.getWarnings();
+        }
+        assertThat(controls, is(3L));
+        assertThat(warnings, is(2L));
+    }
+
+    @Test
+    public void discard() throws Exception {
+        CrosswalkStatistics statistics = new CrosswalkStatistics();
+        crosswalk.setListener(statistics);
+        StringBuffer result = crosswalk.createFrom("<root><blob>abc<simple>def</simple><x><complex/></x></blob><simple>ghi</simple></root>");
+        assertThat(result.toString(), is("-null-ghi"));
+        assertThat(statistics.getElementCount("{}simple"), is(1L));
+        CrosswalkStatistics.HandlerStatistics discarded = statistics.getHandlerStatistics().get(DiscardHandler.class.getName());
+        assertThat(discarded.getControls(), is(1L));
+        assertThat(discarded.getDiscardedElements(), is(3L));
+        assertThat(discarded.getDiscardedChars(), is(6L));
+    }
+
     @Test(expected = NullPointerException.class)
     public void noXSD() throws Exception {
         new CW(new AbstractValidator2((String[]) null) {}).createFrom("");
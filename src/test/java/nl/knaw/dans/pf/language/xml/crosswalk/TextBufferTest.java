@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.crosswalk;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TextBufferTest {
+
+    @Test
+    public void clearAndReuse() {
+        final TextBuffer buffer = new TextBuffer();
+        append(buffer, "first");
+        buffer.clear();
+        assertThat(buffer.length(), is(0));
+        assertThat(buffer.toString(), is(""));
+        append(buffer, "second");
+        assertThat(buffer.toString(), is("second"));
+        assertThat(buffer.subSequence(1, 3).toString(), is("ec"));
+        assertThat(buffer.charAt(5), is('d'));
+    }
+
+    @Test
+    public void isBlank() {
+        final TextBuffer buffer = new TextBuffer();
+        assertThat(buffer.isBlank(), is(true));
+        append(buffer, " \n\t ");
+        assertThat(buffer.isBlank(), is(true));
+        append(buffer, " x ");
+        assertThat(buffer.isBlank(), is(false));
+        buffer.clear();
+        assertThat(buffer.isBlank(), is(true));
+    }
+
+    @Test
+    public void toStringIsCachedUntilAppend() {
+        final TextBuffer buffer = new TextBuffer();
+        append(buffer, "abc");
+        final String first = buffer.toString();
+        assertThat(buffer.toString(), sameInstance(first));
+        append(buffer, "def");
+        assertThat(buffer.toString(), not(sameInstance(first)));
+        assertThat(buffer.toString(), is("abcdef"));
+    }
+
+    @Test
+    public void releasesLargeArrays() {
+        final TextBuffer buffer = new TextBuffer();
+        final int initial = buffer.capacity();
+        final char[] large = new char[100 * 1024];
+        Arrays.fill(large, 'x');
+        buffer.append(large, 0, large.length);
+        assertThat(buffer.length(), is(large.length));
+        buffer.clear();
+        assertThat(buffer.capacity(), is(initial));
+
+        // a moderate text keeps its array for the next element
+        append(buffer, new String(new char[1000]));
+        final int moderate = buffer.capacity();
+        buffer.clear();
+        assertThat(buffer.capacity(), is(moderate));
+    }
+
+    private static void append(final TextBuffer buffer, final String s) {
+        buffer.append(s.toCharArray(), 0, s.length());
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.schema;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler;
+import nl.knaw.dans.pf.language.xml.validation.XMLErrorHandler.Reporter;
+
+import org.junit.Test;
+
+public class SchemaCacheTest {
+    private static final String XSD = "file://" + new File("src/test/resources/input/abstract.xsd").getAbsolutePath();
+
+    @Test
+    public void compiledOnce() throws Exception {
+        final long misses = SchemaCache.getMisses();
+        final CachedSchemaValidator first = new CachedSchemaValidator(XSD);
+        final CachedSchemaValidator second = new CachedSchemaValidator(XSD);
+        assertThat(first.getCompiledSchema(), sameInstance(second.getCompiledSchema()));
+        assertThat(SchemaCache.getMisses() - misses <= 1, is(true));
+    }
+
+    @Test
+    public void validate() throws Exception {
+        final XMLErrorHandler handler = new XMLErrorHandler(Reporter.off);
+        new CachedSchemaValidator(XSD).validate(handler, new ByteArrayInputStream("<root/>".getBytes("UTF-8")));
+        assertThat(handler.getErrors().size(), is(0));
+        new CachedSchemaValidator(XSD).validate(handler, new ByteArrayInputStream("<noroot/>".getBytes("UTF-8")));
+        assertThat(handler.getErrors().size(), is(1));
+    }
+}
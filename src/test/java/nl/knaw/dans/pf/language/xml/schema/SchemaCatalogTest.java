@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.schema;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SchemaCatalogTest {
+    @Rule
+    public TemporaryFolder overrideDir = new TemporaryFolder();
+
+    @Test
+    public void override() throws Exception {
+        final File local = new File(overrideDir.getRoot(), "example.org/schemas/x.xsd");
+        FileUtils.writeStringToFile(local, "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'/>", "UTF-8");
+        final SchemaCatalog catalog = new SchemaCatalog(overrideDir.getRoot());
+        assertThat(catalog.resolve("https://example.org/schemas/x.xsd"), is(local.toURI().toURL().toExternalForm()));
+        assertThat(catalog.resolveEntity(null, "http://example.org/schemas/x.xsd").getSystemId(), is(local.toURI().toURL().toExternalForm()));
+        assertThat(catalog.resolveResource(null, null, null, "x.xsd", "https://example.org/schemas/y.xsd").getSystemId(),
+                is(local.toURI().toURL().toExternalForm()));
+    }
+
+    @Test
+    public void noLocalCopy() throws Exception {
+        final SchemaCatalog catalog = new SchemaCatalog(overrideDir.getRoot());
+        assertThat(catalog.resolve("https://example.org/schemas/z.xsd"), is("https://example.org/schemas/z.xsd"));
+        assertThat(catalog.resolve("file:///tmp/z.xsd"), is("file:///tmp/z.xsd"));
+        assertThat(catalog.resolveResource(null, null, null, "https://example.org/schemas/z.xsd", null), nullValue());
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.vocabulary;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+
+import org.junit.Test;
+
+public class MapFromXSDTest {
+    private static final String XSD = new File("src/test/resources/input/vocabulary.xsd").toURI().toString();
+
+    @Test
+    public void maps() throws Exception {
+        final MapFromXSD map = new MapFromXSD(XSD);
+        assertThat(map.getEnum2appInfo().size(), is(2));
+        assertThat(map.getEnum2appInfo().get("G"), is("green"));
+        assertThat(map.getAppInfo2doc().get("green"), is("The colour of grass"));
+        assertThat(map.getEnum2doc().get("R"), is("The colour of blood"));
+        assertThat(map.getAppInfo2enum().get("green"), is("G"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unmodifiable() throws Exception {
+        new MapFromXSD(XSD).getEnum2appInfo().put("B", "blue");
+    }
+}
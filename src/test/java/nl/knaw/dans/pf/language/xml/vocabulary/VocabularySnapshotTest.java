@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2014 DANS - Data Archiving and Networked Services (info@dans.knaw.nl)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package nl.knaw.dans.pf.language.xml.vocabulary;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.net.URI;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class VocabularySnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String xsd;
+    private String dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = System.getProperty(VocabularySnapshot.DIR_PROPERTY);
+        System.setProperty(VocabularySnapshot.DIR_PROPERTY, folder.newFolder("snapshots").getPath());
+        final File copy = folder.newFile("vocabulary.xsd");
+        FileUtils.copyFile(new File("src/test/resources/input/vocabulary.xsd"), copy);
+        xsd = copy.toURI().toString();
+    }
+
+    @After
+    public void tearDown() {
+        if (dir == null)
+            System.clearProperty(VocabularySnapshot.DIR_PROPERTY);
+        else
+            System.setProperty(VocabularySnapshot.DIR_PROPERTY, dir);
+    }
+
+    @Test
+    public void firstRunWritesSnapshot() throws Exception {
+        final MapFromXSD fromXsd = VocabularySnapshot.load(xsd);
+        assertThat(VocabularySnapshot.getFile(xsd).isFile(), is(true));
+        assertThat(fromXsd.getEnum2appInfo().get("R"), is("red"));
+
+        final MapFromXSD fromSnapshot = VocabularySnapshot.load(xsd);
+        assertThat(fromSnapshot.getEnum2appInfo(), is(fromXsd.getEnum2appInfo()));
+        assertThat(fromSnapshot.getAppInfo2doc(), is(fromXsd.getAppInfo2doc()));
+        assertThat(fromSnapshot.getEnum2doc(), is(fromXsd.getEnum2doc()));
+    }
+
+    @Test
+    public void staleSnapshot() throws Exception {
+        VocabularySnapshot.load(xsd);
+        final File file = new File(new URI(xsd));
+        FileUtils.writeStringToFile(file, FileUtils.readFileToString(file, "UTF-8").replace(">green<", ">lime green<"), "UTF-8");
+        file.setLastModified(file.lastModified() + 2000);
+        assertThat(VocabularySnapshot.load(xsd).getEnum2appInfo().get("G"), is("lime green"));
+    }
+
+    @Test
+    public void touchedXsd() throws Exception {
+        VocabularySnapshot.load(xsd);
+        final File snapshot = VocabularySnapshot.getFile(xsd);
+        snapshot.setLastModified(0);
+        VocabularySnapshot.load(xsd);
+        // the XSD did not change, so the snapshot is not replaced
+        assertThat(snapshot.lastModified(), is(0L));
+    }
+
+    @Test
+    public void snapshotsAreOptIn() throws Exception {
+        System.clearProperty(VocabularySnapshot.DIR_PROPERTY);
+        assertThat(VocabularySnapshot.getFile(xsd), nullValue());
+        assertThat(VocabularySnapshot.load(xsd).getEnum2appInfo().get("R"), is("red"));
+        assertThat(new File(folder.getRoot(), "snapshots").list().length, is(0));
+    }
+
+    @Test
+    public void corruptSnapshot() throws Exception {
+        VocabularySnapshot.load(xsd);
+        FileUtils.writeStringToFile(VocabularySnapshot.getFile(xsd), "garbage", "UTF-8");
+        assertThat(VocabularySnapshot.load(xsd).getEnum2appInfo().get("R"), is("red"));
+    }
+}